@@ -0,0 +1,173 @@
+package org.khovrino.type;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class ClassHierarchy {
+
+    private static final ClassValue<ClassHierarchy> CACHE = new ClassValue<>() {
+        @Override
+        protected ClassHierarchy computeValue(Class<?> type) {
+            return new ClassHierarchy(type);
+        }
+    };
+
+    static ClassHierarchy of(Class<?> clazz) {
+        return CACHE.get(clazz);
+    }
+
+    private final Class<?> clazz;
+    private final TypeVariable<?>[] typeParameters;
+    private final Type genericSuperclass;
+    private final Type[] genericInterfaces;
+    private final Class<?>[] interfaces;
+    private final boolean raw;
+    private final TypeTerm term;
+    private final Map<Class<?>, Type> supertypeTemplates = new ConcurrentHashMap<>();
+    private final Map<Class<?>, TypeTerm> supertypeTemplateTerms = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Type> erasedSupertypeTemplates = new ConcurrentHashMap<>();
+    private volatile Type unresolved;
+    private volatile Class<?>[] ancestors;
+    private volatile Map<TypeVariable<?>, Type> erasedArguments;
+
+    private ClassHierarchy(Class<?> clazz) {
+        this.clazz = clazz;
+        this.typeParameters = clazz.getTypeParameters();
+        this.genericSuperclass = clazz.getGenericSuperclass();
+        this.genericInterfaces = clazz.getGenericInterfaces();
+        this.interfaces = clazz.getInterfaces();
+        this.term = new TypeTerm.ClassRef(clazz);
+        Class<?> outer = clazz.getDeclaringClass();
+        this.raw = typeParameters.length > 0
+                || (outer != null && !Modifier.isStatic(clazz.getModifiers()) && ClassHierarchy.of(outer).isRaw());
+    }
+
+    TypeVariable<?> typeParameter(int index) {
+        return typeParameters[index];
+    }
+
+    int typeParameterCount() {
+        return typeParameters.length;
+    }
+
+    Type genericSuperclass() {
+        return genericSuperclass;
+    }
+
+    Type genericInterface(int index) {
+        return genericInterfaces[index];
+    }
+
+    int interfaceCount() {
+        return interfaces.length;
+    }
+
+    Class<?> rawInterface(int index) {
+        return interfaces[index];
+    }
+
+    TypeTerm term() {
+        return term;
+    }
+
+    boolean isRaw() {
+        return raw;
+    }
+
+    Type unresolved() {
+        Type type = unresolved;
+        if (type == null) {
+            type = JavaType.unresolved(clazz);
+            unresolved = type;
+        }
+        return type;
+    }
+
+    Map<TypeVariable<?>, Type> erasedArguments() {
+        Map<TypeVariable<?>, Type> result = erasedArguments;
+        if (result == null) {
+            Map<TypeVariable<?>, Type> arguments = new LinkedHashMap<>();
+            Class<?> c = clazz;
+            do {
+                for (TypeVariable<?> variable : c.getTypeParameters()) {
+                    arguments.put(variable, JavaType.erasure(variable));
+                }
+            } while (!Modifier.isStatic(c.getModifiers()) && (c = c.getDeclaringClass()) != null);
+            result = Collections.unmodifiableMap(arguments);
+            erasedArguments = result;
+        }
+        return result;
+    }
+
+    Class<?>[] ancestors() {
+        Class<?>[] result = ancestors;
+        if (result == null) {
+            Set<Class<?>> classes = new LinkedHashSet<>();
+            classes.add(clazz);
+            for (Class<?> c = clazz.getSuperclass(); c != null; c = c.getSuperclass()) {
+                classes.add(c);
+            }
+            for (Class<?> c : classes.toArray(new Class<?>[0])) {
+                addInterfaces(classes, c);
+            }
+            if (!clazz.isPrimitive()) {
+                classes.add(Object.class);
+            }
+            result = classes.toArray(new Class<?>[0]);
+            ancestors = result;
+        }
+        return result;
+    }
+
+    private static void addInterfaces(Set<Class<?>> classes, Class<?> clazz) {
+        for (Class<?> i : clazz.getInterfaces()) {
+            if (classes.add(i)) {
+                addInterfaces(classes, i);
+            }
+        }
+    }
+
+    Type supertypeTemplate(Class<?> superClass) {
+        Type template = supertypeTemplates.get(superClass);
+        if (template == null) {
+            template = JavaType.walkSupertypes(unresolved(), clazz, superClass);
+            Type previous = supertypeTemplates.putIfAbsent(superClass, template);
+            if (previous != null) {
+                template = previous;
+            }
+        }
+        return template;
+    }
+
+    Type erasedSupertypeTemplate(Class<?> superClass) {
+        Type template = erasedSupertypeTemplates.get(superClass);
+        if (template == null) {
+            template = JavaType.walkSupertypes(unresolved(), clazz, superClass, true);
+            Type previous = erasedSupertypeTemplates.putIfAbsent(superClass, template);
+            if (previous != null) {
+                template = previous;
+            }
+        }
+        return template;
+    }
+
+    TypeTerm supertypeTemplateTerm(Class<?> superClass) {
+        TypeTerm template = supertypeTemplateTerms.get(superClass);
+        if (template == null) {
+            template = TypeTerm.of(supertypeTemplate(superClass));
+            TypeTerm previous = supertypeTemplateTerms.putIfAbsent(superClass, template);
+            if (previous != null) {
+                template = previous;
+            }
+        }
+        return template;
+    }
+
+}
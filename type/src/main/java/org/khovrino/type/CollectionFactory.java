@@ -0,0 +1,174 @@
+package org.khovrino.type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.Vector;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+public final class CollectionFactory<T> {
+
+    private static final List<Class<?>> DEFAULTS = List.of(ArrayList.class, LinkedHashSet.class, TreeSet.class,
+            ArrayDeque.class, LinkedHashMap.class, TreeMap.class, ConcurrentHashMap.class,
+            ConcurrentSkipListMap.class, ConcurrentSkipListSet.class, LinkedBlockingDeque.class,
+            LinkedTransferQueue.class, CopyOnWriteArrayList.class);
+
+    private static final Map<Class<?>, IntFunction<Object>> SIZED = Map.ofEntries(
+            Map.entry(ArrayList.class, ArrayList::new),
+            Map.entry(Vector.class, size -> new Vector<>(Math.max(size, 1))),
+            Map.entry(ArrayDeque.class, ArrayDeque::new),
+            Map.entry(PriorityQueue.class, size -> new PriorityQueue<>(Math.max(size, 1))),
+            Map.entry(HashSet.class, size -> new HashSet<>(capacity(size))),
+            Map.entry(LinkedHashSet.class, size -> new LinkedHashSet<>(capacity(size))),
+            Map.entry(HashMap.class, size -> new HashMap<>(capacity(size))),
+            Map.entry(LinkedHashMap.class, size -> new LinkedHashMap<>(capacity(size))),
+            Map.entry(WeakHashMap.class, size -> new WeakHashMap<>(capacity(size))),
+            Map.entry(IdentityHashMap.class, IdentityHashMap::new),
+            Map.entry(ConcurrentHashMap.class, ConcurrentHashMap::new));
+
+    private static final TypeCache<CollectionFactory<?>> CACHE = TypeCache.create("collectionFactories");
+
+    @SuppressWarnings("unchecked")
+    public static <T> CollectionFactory<T> of(TypeToken<T> token) {
+        return (CollectionFactory<T>) CACHE.get(token.javaType(), CollectionFactory::create);
+    }
+
+    private static CollectionFactory<?> create(Type type) {
+        return new CollectionFactory<>(TypeToken.of(type));
+    }
+
+    private final TypeToken<T> type;
+    private final Class<?> implementation;
+    private final Supplier<Object> creator;
+    private final IntFunction<Object> sizedCreator;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private CollectionFactory(TypeToken<T> type) {
+        this.type = type;
+        Type javaType = type.javaType();
+        Class<?> raw = JavaType.rawType(javaType);
+        boolean isMap = Map.class.isAssignableFrom(raw);
+        if (!isMap && !Collection.class.isAssignableFrom(raw)) {
+            throw new IllegalArgumentException(String.format("Not a collection type: %s", type.name()));
+        }
+        Class<?> element = enumArgument(javaType, isMap ? Map.class : Collection.class);
+        if (element != null && isMap && raw.isAssignableFrom(EnumMap.class)) {
+            this.implementation = EnumMap.class;
+            this.creator = () -> new EnumMap(element);
+            this.sizedCreator = null;
+        } else if (element != null && Set.class.isAssignableFrom(raw) && raw.isAssignableFrom(EnumSet.class)) {
+            this.implementation = EnumSet.class;
+            this.creator = () -> EnumSet.noneOf((Class) element);
+            this.sizedCreator = null;
+        } else {
+            this.implementation = implementation(raw);
+            MethodHandle constructor = constructor(implementation);
+            this.creator = () -> {
+                try {
+                    return (Object) constructor.invokeExact();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalArgumentException(e);
+                }
+            };
+            this.sizedCreator = SIZED.get(implementation);
+        }
+    }
+
+    public TypeToken<T> type() {
+        return type;
+    }
+
+    public Class<?> implementation() {
+        return implementation;
+    }
+
+    public boolean isPresized() {
+        return sizedCreator != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T create() {
+        return (T) creator.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    public T create(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException(String.format("Negative expected size %d", expectedSize));
+        }
+        return (T) (sizedCreator == null ? creator.get() : sizedCreator.apply(expectedSize));
+    }
+
+    @Override
+    public String toString() {
+        return "CollectionFactory[" + type.simpleName() + " -> " + implementation.getSimpleName() + "]";
+    }
+
+    private static Class<?> implementation(Class<?> raw) {
+        if (!raw.isInterface() && !Modifier.isAbstract(raw.getModifiers())) {
+            return raw;
+        }
+        for (Class<?> candidate : DEFAULTS) {
+            if (raw.isAssignableFrom(candidate)) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException(String.format("No implementation known for %s", raw.getName()));
+    }
+
+    private static MethodHandle constructor(Class<?> implementation) {
+        try {
+            return MethodHandles.publicLookup().findConstructor(implementation, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    String.format("No public default constructor in %s", implementation.getName()), e);
+        }
+    }
+
+    private static Class<?> enumArgument(Type type, Class<?> superClass) {
+        if (!(JavaType.downgrade(type, superClass) instanceof ParameterizedType parameterized)) {
+            return null;
+        }
+        Type argument = parameterized.getActualTypeArguments()[0];
+        if (argument instanceof WildcardType wildcard) {
+            argument = wildcard.getLowerBounds().length > 0 ? null : wildcard.getUpperBounds()[0];
+        }
+        return argument instanceof Class<?> clazz && clazz.isEnum() ? clazz : null;
+    }
+
+    private static int capacity(int expectedSize) {
+        return expectedSize < 3 ? expectedSize + 1 : (int) (expectedSize / 0.75f + 1.0f);
+    }
+
+}
@@ -0,0 +1,185 @@
+package org.khovrino.type;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+public final class FunctionalSignature {
+
+    private static final ClassValue<Optional<Method>> ABSTRACT_METHODS = new ClassValue<>() {
+        @Override
+        protected Optional<Method> computeValue(Class<?> type) {
+            if (!type.isInterface() || type.isAnnotation()) {
+                return Optional.empty();
+            }
+            Method result = null;
+            for (TypeMembers.ResolvedMethod resolved : TypeMembers.of(ClassHierarchy.of(type).unresolved()).methods()) {
+                Method method = resolved.method();
+                if (Modifier.isAbstract(method.getModifiers()) && !isObjectMethod(method)) {
+                    if (result != null) {
+                        return Optional.empty();
+                    }
+                    result = method;
+                }
+            }
+            return Optional.ofNullable(result);
+        }
+    };
+
+    private static final TypeCache<FunctionalSignature> CACHE = TypeCache.create("functionalSignatures");
+
+    public static FunctionalSignature of(Type type) {
+        Objects.requireNonNull(type);
+        return CACHE.get(type, FunctionalSignature::new);
+    }
+
+    public static FunctionalSignature of(TypeToken<?> token) {
+        return of(token.javaType());
+    }
+
+    private final Type type;
+    private final Type functionalInterface;
+    private final Method method;
+    private final Type returnType;
+    private final List<Type> parameterTypes;
+    private final MethodType methodType;
+
+    private FunctionalSignature(Type type) {
+        this.type = type;
+        if (JavaType.isArray(type) || JavaType.isPrimitive(type)) {
+            throw notFunctional(type);
+        }
+        Class<?> raw = JavaType.rawType(type);
+        Class<?> target = functionalInterface(raw, type);
+        Type targetType = JavaType.downgrade(type, target);
+        if (targetType instanceof Class<?> clazz && ClassHierarchy.of(clazz).isRaw()) {
+            targetType = ClassHierarchy.of(clazz).unresolved();
+        } else if (targetType instanceof ParameterizedType paramType) {
+            targetType = withoutWildcards(paramType);
+        }
+        Method sam = ABSTRACT_METHODS.get(target).orElseThrow();
+        TypeMembers.ResolvedMethod resolved = null;
+        for (TypeMembers.ResolvedMethod candidate : TypeMembers.of(targetType).methods()) {
+            if (candidate.method().equals(sam)) {
+                resolved = candidate;
+                break;
+            }
+        }
+        this.functionalInterface = targetType;
+        this.method = sam;
+        this.returnType = Objects.requireNonNull(resolved).returnType();
+        this.parameterTypes = resolved.parameterTypes();
+        Class<?>[] parameterClasses = new Class<?>[parameterTypes.size()];
+        for (int i = 0; i < parameterClasses.length; i++) {
+            parameterClasses[i] = JavaType.erasure(parameterTypes.get(i));
+        }
+        this.methodType = MethodType.methodType(JavaType.erasure(returnType), parameterClasses);
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    public Type functionalInterface() {
+        return functionalInterface;
+    }
+
+    public Method method() {
+        return method;
+    }
+
+    public Type returnType() {
+        return returnType;
+    }
+
+    public List<Type> parameterTypes() {
+        return parameterTypes;
+    }
+
+    public MethodType methodType() {
+        return methodType;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(JavaType.simpleName(returnType)).append(' ').append(method.getName())
+                .append('(');
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            result.append(i == 0 ? "" : ", ").append(JavaType.simpleName(parameterTypes.get(i)));
+        }
+        return result.append(')').toString();
+    }
+
+    private static Class<?> functionalInterface(Class<?> raw, Type type) {
+        if (ABSTRACT_METHODS.get(raw).isPresent()) {
+            return raw;
+        } else if (raw.isInterface()) {
+            throw notFunctional(type);
+        }
+        List<Class<?>> candidates = new ArrayList<>();
+        for (Class<?> ancestor : ClassHierarchy.of(raw).ancestors()) {
+            if (ABSTRACT_METHODS.get(ancestor).isPresent() && !hasSubtype(candidates, ancestor)) {
+                candidates.removeIf(candidate -> candidate.isAssignableFrom(ancestor));
+                candidates.add(ancestor);
+            }
+        }
+        if (candidates.size() != 1) {
+            throw notFunctional(type);
+        }
+        return candidates.get(0);
+    }
+
+    private static boolean hasSubtype(List<Class<?>> classes, Class<?> superClass) {
+        for (Class<?> c : classes) {
+            if (superClass.isAssignableFrom(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Method objectMethod = Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return Modifier.isPublic(objectMethod.getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static Type withoutWildcards(ParameterizedType type) {
+        Type[] args = type.getActualTypeArguments();
+        Class<?> raw = (Class<?>) type.getRawType();
+        ClassHierarchy hierarchy = ClassHierarchy.of(raw);
+        boolean changed = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof WildcardType wildcardType) {
+                Type[] lowerBounds = wildcardType.getLowerBounds();
+                Type[] upperBounds = wildcardType.getUpperBounds();
+                Type bound = hierarchy.typeParameter(i).getBounds()[0];
+                if (lowerBounds.length > 0) {
+                    args[i] = lowerBounds[0];
+                } else if (upperBounds.length > 0 && upperBounds[0] != Object.class) {
+                    args[i] = upperBounds[0];
+                } else {
+                    args[i] = bound instanceof Class ? bound : Object.class;
+                }
+                changed = true;
+            }
+        }
+        return changed ? new ParameterizedTypeImpl(type.getOwnerType(), raw, args) : type;
+    }
+
+    private static IllegalArgumentException notFunctional(Type type) {
+        return new IllegalArgumentException(
+                String.format("%s does not resolve to a single functional interface", type.getTypeName()));
+    }
+
+}
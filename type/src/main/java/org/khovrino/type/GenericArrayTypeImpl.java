@@ -6,6 +6,7 @@ import java.util.Objects;
 final class GenericArrayTypeImpl implements GenericArrayType {
 
     private final java.lang.reflect.Type genericComponentType;
+    private TypeTerm term;
 
     public GenericArrayTypeImpl(java.lang.reflect.Type genericComponentType) {
         this.genericComponentType = Objects.requireNonNull(genericComponentType);
@@ -16,6 +17,15 @@ final class GenericArrayTypeImpl implements GenericArrayType {
         return genericComponentType;
     }
 
+    TypeTerm term() {
+        TypeTerm t = term;
+        if (t == null) {
+            t = TypeTerm.convert(this);
+            term = t;
+        }
+        return t;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hashCode(genericComponentType);
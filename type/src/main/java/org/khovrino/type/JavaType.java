@@ -8,8 +8,12 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -17,10 +21,21 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
-import java.util.Stack;
 
 public final class JavaType {
 
+    static final boolean GROUND_FAST_LANE = !Boolean.getBoolean("org.khovrino.type.disableGroundFastLane");
+
+    static final boolean SOLVER_ARENA = !Boolean.getBoolean("org.khovrino.type.disableSolverArena");
+
+    static final boolean VIRTUAL_THREADS = Boolean.getBoolean("org.khovrino.type.virtualThreads");
+
+    static final boolean SINGLE_FLIGHT = !Boolean.getBoolean("org.khovrino.type.disableSingleFlight");
+
+    private static final SingleFlight<Call, Type> FLIGHTS = new SingleFlight<>();
+
+    private static final TypeCache<Type> RESULTS = TypeCache.create("results");
+
     public static Object newInstance(Type type) {
         Class<?> c = rawType(type);
         int rank = 0;
@@ -29,6 +44,10 @@ public final class JavaType {
             rank++;
         }
         if (rank == 0) {
+            if ((c.isInterface() || Modifier.isAbstract(c.getModifiers()))
+                    && (Collection.class.isAssignableFrom(c) || Map.class.isAssignableFrom(c))) {
+                return CollectionFactory.of(TypeToken.of(type instanceof Class ? unresolved(c) : type)).create();
+            }
             try {
                 return c.getConstructor().newInstance();
             } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException
@@ -42,9 +61,7 @@ public final class JavaType {
 
     public static String simpleName(Type type) {
         Objects.requireNonNull(type);
-        StringBuilder sb = new StringBuilder();
-        writeSimpleName(type, sb);
-        return sb.toString();
+        return new SimpleNameWriter(new StringBuilder()).visit(type).toString();
     }
 
     public static String typeSignature(Class<?> clazz) {
@@ -140,14 +157,13 @@ public final class JavaType {
         } else {
             List<Type> supertypes = new ArrayList<>();
             Map<TypeVariable<?>, Type> args = typeArguments(type);
-            Class<?> raw = rawType(type);
-            Type superClass = raw.getGenericSuperclass();
-            Type[] superInterfaces = raw.getGenericInterfaces();
+            ClassHierarchy hierarchy = ClassHierarchy.of(rawType(type));
+            Type superClass = hierarchy.genericSuperclass();
             if (superClass != null) {
                 supertypes.add(replace(superClass, args));
             }
-            for (Type superInterface : superInterfaces) {
-                supertypes.add(replace(superInterface, args));
+            for (int i = 0; i < hierarchy.interfaceCount(); i++) {
+                supertypes.add(replace(hierarchy.genericInterface(i), args));
             }
             return Collections.unmodifiableList(supertypes);
         }
@@ -168,48 +184,62 @@ public final class JavaType {
 
     public static Map<TypeVariable<?>, Type> typeArguments(Type type) {
         Objects.requireNonNull(type);
-        if (isPrimitive(type)) {
-            return Collections.emptyMap();
-        }
-        if (isArray(type)) {
-            return typeArguments(componentType(type));
-        }
-        if (type instanceof Class) {
-            requireNonRawClass(type);
-            return Collections.emptyMap();
-        } else if (type instanceof ParameterizedType) {
-            Type t = type;
-            ParameterizedType p;
-            Stack<ParameterizedType> scope = new Stack<>();
-            Map<TypeVariable<?>, Type> map = new LinkedHashMap<>();
-            do {
-                p = (ParameterizedType) t;
-                scope.push(p);
-            } while ((t = p.getOwnerType()) instanceof ParameterizedType);
-            while (!scope.empty()) {
-                p = scope.pop();
-                Class<?> c = (Class<?>) p.getRawType();
-                TypeVariable<?>[] vars = c.getTypeParameters();
-                Type[] args = p.getActualTypeArguments();
-                for (int i = 0; i < vars.length; i++) {
-                    map.put(vars[i], args[i]);
-                }
-            }
-            return Collections.unmodifiableMap(map);
-        } else {
-            throw new IllegalArgumentException(type.getClass().getName());
-        }
+        return TYPE_ARGUMENTS.visit(type);
     }
 
     public static boolean testExtends(Type subType, Type superType) {
+        Objects.requireNonNull(subType, "subType");
+        Objects.requireNonNull(superType, "superType");
+        if (GROUND_FAST_LANE && TypeTrace.current() == null) {
+            TypeTerm subTerm = TypeTerm.of(subType);
+            TypeTerm superTerm = TypeTerm.of(superType);
+            if (subTerm.ground() && superTerm.ground()) {
+                return TermSolver.testExtends(subTerm, superTerm);
+            }
+        }
         return solveExtends(subType, superType, SolutionMode.IDENTITY).isIdentity();
     }
 
+    public static BitSet testExtends(Type subType, List<? extends Type> superTypes) {
+        Objects.requireNonNull(subType, "subType");
+        Objects.requireNonNull(superTypes, "superTypes");
+        BitSet result = new BitSet(superTypes.size());
+        TermSolver.Ancestors ancestors = null;
+        if (GROUND_FAST_LANE && TypeTrace.current() == null) {
+            TypeTerm subTerm = TypeTerm.of(subType);
+            if (subTerm.ground()) {
+                ancestors = new TermSolver.Ancestors(subTerm);
+            }
+        }
+        for (int i = 0; i < superTypes.size(); i++) {
+            Type superType = Objects.requireNonNull(superTypes.get(i), "superType");
+            boolean extendsSuper;
+            if (ancestors != null) {
+                TypeTerm superTerm = TypeTerm.of(superType);
+                extendsSuper = superTerm.ground() ? ancestors.testExtends(superTerm)
+                        : solveExtends(subType, superType, SolutionMode.IDENTITY).isIdentity();
+            } else {
+                extendsSuper = solveExtends(subType, superType, SolutionMode.IDENTITY).isIdentity();
+            }
+            if (extendsSuper) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
     public static boolean testSuper(Type superType, Type subType) {
-        return solveExtends(subType, superType, SolutionMode.IDENTITY).isIdentity();
+        return testExtends(subType, superType);
     }
 
     public static Type transform(Type src, Type fromMask, Type toMask) {
+        if (coalesce()) {
+            return coalesced(new Call("transform", src, fromMask, toMask));
+        }
+        return doTransform(src, fromMask, toMask);
+    }
+
+    private static Type doTransform(Type src, Type fromMask, Type toMask) {
         return JavaType.replace(toMask, JavaType.solveSuper(fromMask, src));
     }
 
@@ -236,10 +266,20 @@ public final class JavaType {
     }
 
     public static Type upgrade(Type superType, Type subTypeMask) {
+        if (coalesce()) {
+            return coalesced(new Call("upgrade", superType, subTypeMask, null));
+        }
         return replace(subTypeMask, solveExtends(subTypeMask, superType));
     }
 
     public static Type upgrade(Type superType, Class<?> subClass) {
+        if (coalesce()) {
+            return coalesced(new Call("upgradeClass", superType, subClass, null));
+        }
+        return doUpgrade(superType, subClass);
+    }
+
+    private static Type doUpgrade(Type superType, Class<?> subClass) {
         Type subTypeMask = unresolved(subClass);
         Map<TypeVariable<?>, Type> args = typeArguments(subTypeMask);
         Map<TypeVariable<?>, Type> root = solveExtends(subTypeMask, superType);
@@ -260,27 +300,54 @@ public final class JavaType {
     public static Type downgrade(Type subType, Class<?> superClass) {
         Objects.requireNonNull(subType);
         Objects.requireNonNull(superClass);
-        if (isArray(subType)) {
+        if (isArray(subType) && superClass.isArray()) {
             return arrayType(downgrade(componentType(subType), superClass.componentType()));
         }
-        Type currType = subType;
-        Class<?> currClass = rawType(currType);
-        if (!superClass.isAssignableFrom(currClass)) {
+        Class<?> subClass = rawType(subType);
+        if (!superClass.isAssignableFrom(subClass)) {
             throw new IllegalArgumentException(
-                    String.format("%s is not assignable from %s", superClass.getName(), currClass.getName()));
+                    String.format("%s is not assignable from %s", superClass.getName(), subClass.getName()));
+        }
+        if (subClass.equals(superClass)) {
+            return subType;
         }
+        if (subClass.isArray() || superClass.equals(Object.class)) {
+            return superClass;
+        }
+        Type template = ClassHierarchy.of(subClass).supertypeTemplate(superClass);
+        if (SOLVER_ARENA) {
+            SolverArena arena = SolverArena.acquire();
+            try {
+                return arena.substituteArguments(template, subType);
+            } finally {
+                arena.release();
+            }
+        }
+        return replace(template, typeArguments(subType));
+    }
+
+    static Type walkSupertypes(Type subType, Class<?> subClass, Class<?> superClass) {
+        return walkSupertypes(subType, subClass, superClass, false);
+    }
+
+    static Type walkSupertypes(Type subType, Class<?> subClass, Class<?> superClass, boolean erased) {
+        if (superClass.equals(Object.class)) {
+            return Object.class;
+        }
+        Type currType = subType;
+        Class<?> currClass = subClass;
         while (!currClass.equals(superClass)) {
-            Map<TypeVariable<?>, Type> args = typeArguments(currType);
+            Map<TypeVariable<?>, Type> args = erased ? templateArguments(currType) : typeArguments(currType);
+            ClassHierarchy hierarchy = ClassHierarchy.of(currClass);
             Class<?> nextClass = currClass.getSuperclass();
             if (nextClass != null && superClass.isAssignableFrom(nextClass)) {
-                currType = replace(currClass.getGenericSuperclass(), args);
+                currType = replace(hierarchy.genericSuperclass(), args);
                 currClass = nextClass;
             } else {
-                Class<?>[] superInterfaces = currClass.getInterfaces();
-                for (int i = 0; i < superInterfaces.length; i++) {
-                    if (superClass.isAssignableFrom(superInterfaces[i])) {
-                        currType = replace(currClass.getGenericInterfaces()[i], args);
-                        currClass = superInterfaces[i];
+                for (int i = 0; i < hierarchy.interfaceCount(); i++) {
+                    if (superClass.isAssignableFrom(hierarchy.rawInterface(i))) {
+                        currType = replace(hierarchy.genericInterface(i), args);
+                        currClass = hierarchy.rawInterface(i);
                         break;
                     }
                 }
@@ -289,6 +356,29 @@ public final class JavaType {
         return currType;
     }
 
+    static Map<TypeVariable<?>, Type> templateArguments(Type template) {
+        if (template instanceof Class<?> clazz && ClassHierarchy.of(clazz).isRaw()) {
+            return ClassHierarchy.of(clazz).erasedArguments();
+        }
+        return typeArguments(template);
+    }
+
+    static Class<?> erasure(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return clazz;
+        } else if (type instanceof ParameterizedType paramType) {
+            return (Class<?>) paramType.getRawType();
+        } else if (type instanceof GenericArrayType arrayType) {
+            return erasure(arrayType.getGenericComponentType()).arrayType();
+        } else if (type instanceof TypeVariable<?> variable) {
+            return erasure(variable.getBounds()[0]);
+        } else if (type instanceof WildcardType wildcardType) {
+            Type[] upperBounds = wildcardType.getUpperBounds();
+            return upperBounds.length == 0 ? Object.class : erasure(upperBounds[0]);
+        }
+        throw new IllegalArgumentException(String.format("Unsupported type %s", type));
+    }
+
     static Map<TypeVariable<?>, Type> solveExtends(Type subTypeMask, Type superType) {
         try {
             return solveExtends(subTypeMask, superType, SolutionMode.FOR_LEFT_SIDE).root();
@@ -306,6 +396,23 @@ public final class JavaType {
     }
 
     static SolutionSet solveExtends(Type subType, Type superType, SolutionMode mode) {
+        TypeTrace trace = TypeTrace.current();
+        if (trace != null) {
+            return trace.goal("extends", subType, superType, mode, () -> doSolveExtends(subType, superType, mode));
+        }
+        return doSolveExtends(subType, superType, mode);
+    }
+
+    static SolutionSet solveContainedBy(Type innerRange, Type outerRange, SolutionMode mode) {
+        TypeTrace trace = TypeTrace.current();
+        if (trace != null) {
+            return trace.goal("containedBy", innerRange, outerRange, mode,
+                    () -> doSolveContainedBy(innerRange, outerRange, mode));
+        }
+        return doSolveContainedBy(innerRange, outerRange, mode);
+    }
+
+    private static SolutionSet doSolveExtends(Type subType, Type superType, SolutionMode mode) {
         Objects.requireNonNull(subType, "subType");
         Objects.requireNonNull(superType, "superType");
         if (subType instanceof WildcardType) {
@@ -332,7 +439,7 @@ public final class JavaType {
                     Type[] subTypeBounds = ((TypeVariable<?>) subType).getBounds();
                     SolutionSet disjunction = SolutionSet.createFalse();
                     for (Type subTypeBound : subTypeBounds) {
-                        disjunction.or(solveExtends(subTypeBound, superType, mode));
+                        disjunction = disjunction.or(solveExtends(subTypeBound, superType, mode));
                         if (disjunction.isIdentity()) {
                             break;
                         }
@@ -365,11 +472,35 @@ public final class JavaType {
         if (!superClass.isAssignableFrom(subClass)) {
             return SolutionSet.createFalse();
         }
+        if (SOLVER_ARENA) {
+            SolverArena arena = SolverArena.acquire();
+            int mark = arena.mark();
+            try {
+                arena.pushArguments(downgrade(subType, superClass));
+                int superMark = arena.mark();
+                arena.pushArguments(superType);
+                int count = superMark - mark;
+                if (arena.mark() - superMark == count && sameVariables(arena, mark, superMark, count)) {
+                    SolutionSet conjunction = SolutionSet.createTrue();
+                    for (int i = 0; i < count; i++) {
+                        conjunction = conjunction.and(
+                                solveContainedBy(arena.argument(mark + i), arena.argument(superMark + i), mode));
+                        if (conjunction.isEmpty()) {
+                            break;
+                        }
+                    }
+                    return conjunction;
+                }
+            } finally {
+                arena.reset(mark);
+                arena.release();
+            }
+        }
         Map<TypeVariable<?>, Type> subArgs = typeArguments(downgrade(subType, superClass));
         Map<TypeVariable<?>, Type> superArgs = typeArguments(superType);
         SolutionSet conjunction = SolutionSet.createTrue();
         for (TypeVariable<?> var : subArgs.keySet()) {
-            conjunction.and(solveContainedBy(subArgs.get(var), superArgs.get(var), mode));
+            conjunction = conjunction.and(solveContainedBy(subArgs.get(var), superArgs.get(var), mode));
             if (conjunction.isEmpty()) {
                 break;
             }
@@ -377,50 +508,48 @@ public final class JavaType {
         return conjunction;
     }
 
-    static SolutionSet solveContainedBy(Type innerRange, Type outerRange, SolutionMode mode) {
+    private static SolutionSet doSolveContainedBy(Type innerRange, Type outerRange, SolutionMode mode) {
         Objects.requireNonNull(innerRange);
         Objects.requireNonNull(outerRange);
-        Type[] innerSuperBounds;
-        Type[] innerExtendsBounds;
-        Type[] outerSuperBounds;
-        Type[] outerExtendsBounds;
+        Type[] innerSuperBounds = null;
+        Type[] innerExtendsBounds = null;
+        Type[] outerSuperBounds = null;
+        Type[] outerExtendsBounds = null;
         if (innerRange instanceof WildcardType) {
             innerSuperBounds = ((WildcardType) innerRange).getLowerBounds();
             innerExtendsBounds = ((WildcardType) innerRange).getUpperBounds();
-        } else {
-            innerSuperBounds = new Type[] { innerRange };
-            innerExtendsBounds = new Type[] { innerRange };
         }
         if (outerRange instanceof WildcardType) {
             outerSuperBounds = ((WildcardType) outerRange).getLowerBounds();
             outerExtendsBounds = ((WildcardType) outerRange).getUpperBounds();
-        } else {
-            outerSuperBounds = new Type[] { outerRange };
-            outerExtendsBounds = new Type[] { outerRange };
         }
         SolutionSet conjunction = SolutionSet.createTrue();
-        for (Type outerExtendsBound : outerExtendsBounds) {
+        for (int i = 0, n = boundCount(outerExtendsBounds); i < n; i++) {
+            Type outerExtendsBound = bound(outerExtendsBounds, outerRange, i);
             SolutionSet disjunction = SolutionSet.createFalse();
-            for (Type innerExtendsBound : innerExtendsBounds) {
-                disjunction.or(solveExtends(innerExtendsBound, outerExtendsBound, mode));
+            for (int j = 0, m = boundCount(innerExtendsBounds); j < m; j++) {
+                Type innerExtendsBound = bound(innerExtendsBounds, innerRange, j);
+                disjunction = disjunction.or(solveExtends(innerExtendsBound, outerExtendsBound, mode));
                 if (disjunction.isIdentity()) {
                     break;
                 }
             }
-            conjunction.and(disjunction);
+            conjunction = conjunction.and(disjunction);
             if (conjunction.isEmpty()) {
                 break;
             }
         }
-        for (Type outerSuperBound : outerSuperBounds) {
+        for (int i = 0, n = boundCount(outerSuperBounds); i < n; i++) {
+            Type outerSuperBound = bound(outerSuperBounds, outerRange, i);
             SolutionSet disjunction = SolutionSet.createFalse();
-            for (Type innerSuperBound : innerSuperBounds) {
-                disjunction.or(solveExtends(outerSuperBound, innerSuperBound, mode.invert()));
+            for (int j = 0, m = boundCount(innerSuperBounds); j < m; j++) {
+                Type innerSuperBound = bound(innerSuperBounds, innerRange, j);
+                disjunction = disjunction.or(solveExtends(outerSuperBound, innerSuperBound, mode.invert()));
                 if (disjunction.isIdentity()) {
                     break;
                 }
             }
-            conjunction.and(disjunction);
+            conjunction = conjunction.and(disjunction);
             if (conjunction.isEmpty()) {
                 break;
             }
@@ -428,6 +557,82 @@ public final class JavaType {
         return conjunction;
     }
 
+    private static boolean coalesce() {
+        return SINGLE_FLIGHT && TypeTrace.current() == null;
+    }
+
+    private static Type coalesced(Call call) {
+        return RESULTS.get(call, call.anchor(), call.weight(), JavaType::fly);
+    }
+
+    private static Type fly(Call call) {
+        return FLIGHTS.run(call, call::compute);
+    }
+
+    private static final class Call {
+
+        private final String operation;
+        private final Type first;
+        private final Type second;
+        private final Type third;
+        private final int hash;
+
+        private Call(String operation, Type first, Type second, Type third) {
+            this.operation = operation;
+            this.first = first;
+            this.second = second;
+            this.third = third;
+            this.hash = ((operation.hashCode() * 31 + Objects.hashCode(first)) * 31 + Objects.hashCode(second)) * 31
+                    + Objects.hashCode(third);
+        }
+
+        private Class<?> anchor() {
+            return TypeCache.anchor(TypeCache.anchor(TypeCache.anchor(first), second), third);
+        }
+
+        private int weight() {
+            return 1 + TypeCache.weight(first) + TypeCache.weight(second) + TypeCache.weight(third);
+        }
+
+        private Type compute() {
+            return switch (operation) {
+                case "transform" -> doTransform(first, second, third);
+                case "upgrade" -> replace(second, solveExtends(second, first));
+                case "upgradeClass" -> doUpgrade(first, (Class<?>) second);
+                default -> throw new IllegalStateException(operation);
+            };
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Call that && that.operation.equals(operation) && Objects.equals(that.first, first)
+                    && Objects.equals(that.second, second) && Objects.equals(that.third, third);
+        }
+
+    }
+
+    private static int boundCount(Type[] bounds) {
+        return bounds == null ? 1 : bounds.length;
+    }
+
+    private static Type bound(Type[] bounds, Type range, int index) {
+        return bounds == null ? range : bounds[index];
+    }
+
+    private static boolean sameVariables(SolverArena arena, int subMark, int superMark, int count) {
+        for (int i = 0; i < count; i++) {
+            if (!arena.variable(subMark + i).equals(arena.variable(superMark + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static Type unresolved(Class<?> clazz) {
         Class<?> parentClass = clazz.getDeclaringClass();
         Type parentType;
@@ -447,55 +652,17 @@ public final class JavaType {
     }
 
     static Type[] replace(Type[] src, Map<?, ? extends Type> substitution) {
-        Type[] dst = new Type[src.length];
-        for (int i = 0; i < src.length; i++) {
-            dst[i] = replace(src[i], substitution);
-        }
-        return dst;
+        return TypeRewriter.substitution(substitution).rewrite(src);
     }
 
     static Type replace(Type src, Map<?, ? extends Type> substitution) {
-        if (src instanceof TypeVariable) {
-            Type dst = substitution.get(src);
-            return Objects.requireNonNullElse(dst, src);
-        } else if (src instanceof WildcardType) {
-            Type[] srcLowerBounds = ((WildcardType) src).getLowerBounds();
-            Type[] srcUpperBounds = ((WildcardType) src).getUpperBounds();
-            Type[] dstLowerBounds = replace(srcLowerBounds, substitution);
-            Type[] dstUpperBounds = replace(srcUpperBounds, substitution);
-            if (arrayEqualRefs(srcLowerBounds, dstLowerBounds) && arrayEqualRefs(srcUpperBounds, dstUpperBounds)) {
-                return src;
-            } else {
-                return new WildcardTypeImpl(dstLowerBounds, dstUpperBounds);
-            }
-        } else if (src instanceof GenericArrayType) {
-            Type srcComponent = ((GenericArrayType) src).getGenericComponentType();
-            Type dstComponent = replace(srcComponent, substitution);
-            if (srcComponent == dstComponent) {
-                return src;
-            } else {
-                return new GenericArrayTypeImpl(dstComponent);
-            }
-        } else if (src instanceof ParameterizedType) {
-            Type srcOwner = ((ParameterizedType) src).getOwnerType();
-            Class<?> srcRaw = (Class<?>) ((ParameterizedType) src).getRawType();
-            Type[] srcArgs = ((ParameterizedType) src).getActualTypeArguments();
-            Type dstOwner = replace(srcOwner, substitution);
-            Type[] dstArgs = replace(srcArgs, substitution);
-            if (srcOwner == dstOwner && arrayEqualRefs(srcArgs, dstArgs)) {
-                return src;
-            } else {
-                return new ParameterizedTypeImpl(dstOwner, srcRaw, dstArgs);
-            }
-        } else {
-            return src;
-        }
+        return TypeRewriter.substitution(substitution).rewrite(src);
     }
 
     static Type requireNonRawClass(Type type) {
-        if (type instanceof Class<?> clazz) {
+        if (type instanceof Class<?> clazz && ClassHierarchy.of(clazz).isRaw()) {
             do {
-                if (clazz.getTypeParameters().length > 0) {
+                if (ClassHierarchy.of(clazz).typeParameterCount() > 0) {
                     throw new IllegalArgumentException(String.format("Raw class %s", clazz.getName()));
                 }
             } while (!Modifier.isStatic(clazz.getModifiers()) && (clazz = clazz.getDeclaringClass()) != null);
@@ -531,22 +698,79 @@ public final class JavaType {
         }
     }
 
-    private static void writeSimpleName(Type type, StringBuilder sb) {
-        if (type instanceof Class) {
-            sb.append(((Class<?>) type).getSimpleName());
-        } else if (type instanceof GenericArrayType) {
-            sb.append(simpleName(((GenericArrayType) type).getGenericComponentType()));
-            sb.append("[]");
-        } else if (type instanceof ParameterizedType) {
+    private static final TypeVisitor<Map<TypeVariable<?>, Type>> TYPE_ARGUMENTS = new TypeVisitor<>() {
+
+        @Override
+        public Map<TypeVariable<?>, Type> visitClass(Class<?> type) {
+            if (type.isArray()) {
+                return visit(type.getComponentType());
+            }
+            requireNonRawClass(type);
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Map<TypeVariable<?>, Type> visitParameterized(ParameterizedType type) {
+            Type t = type;
+            ParameterizedType p;
+            Deque<ParameterizedType> scope = new ArrayDeque<>();
+            Map<TypeVariable<?>, Type> map = new LinkedHashMap<>();
+            do {
+                p = (ParameterizedType) t;
+                scope.push(p);
+            } while ((t = p.getOwnerType()) instanceof ParameterizedType);
+            while (!scope.isEmpty()) {
+                p = scope.pop();
+                ClassHierarchy hierarchy = ClassHierarchy.of((Class<?>) p.getRawType());
+                Type[] args = p.getActualTypeArguments();
+                for (int i = 0; i < hierarchy.typeParameterCount(); i++) {
+                    map.put(hierarchy.typeParameter(i), args[i]);
+                }
+            }
+            return Collections.unmodifiableMap(map);
+        }
+
+        @Override
+        public Map<TypeVariable<?>, Type> visitWildcard(WildcardType type) {
+            throw new IllegalArgumentException(type.getClass().getName());
+        }
+
+        @Override
+        public Map<TypeVariable<?>, Type> visitArray(GenericArrayType type) {
+            return visit(type.getGenericComponentType());
+        }
+
+        @Override
+        public Map<TypeVariable<?>, Type> visitVariable(TypeVariable<?> type) {
+            throw new IllegalArgumentException();
+        }
+
+    };
+
+    private static final class SimpleNameWriter implements TypeVisitor<StringBuilder> {
+
+        private final StringBuilder sb;
+
+        private SimpleNameWriter(StringBuilder sb) {
+            this.sb = sb;
+        }
+
+        @Override
+        public StringBuilder visitClass(Class<?> type) {
+            return sb.append(type.getSimpleName());
+        }
+
+        @Override
+        public StringBuilder visitParameterized(ParameterizedType type) {
             Type t = type;
             ParameterizedType p;
-            Stack<ParameterizedType> scope = new Stack<>();
+            Deque<ParameterizedType> scope = new ArrayDeque<>();
             boolean dot = false;
             do {
                 p = (ParameterizedType) t;
                 scope.push(p);
             } while ((t = p.getOwnerType()) instanceof ParameterizedType);
-            while (!scope.empty()) {
+            while (!scope.isEmpty()) {
                 p = scope.pop();
                 if (dot) {
                     sb.append('.');
@@ -561,22 +785,26 @@ public final class JavaType {
                         if (i > 0) {
                             sb.append(',');
                         }
-                        sb.append(simpleName(args[i]));
+                        visit(args[i]);
                     }
                     sb.append('>');
                 }
             }
-        } else if (type instanceof WildcardType) {
+            return sb;
+        }
+
+        @Override
+        public StringBuilder visitWildcard(WildcardType type) {
             sb.append('?');
-            Type[] superBounds = ((WildcardType) type).getLowerBounds();
-            Type[] extendBounds = ((WildcardType) type).getUpperBounds();
+            Type[] superBounds = type.getLowerBounds();
+            Type[] extendBounds = type.getUpperBounds();
             if (superBounds.length > 0) {
                 sb.append(" super ");
                 for (int i = 0; i < superBounds.length; i++) {
                     if (i > 0) {
                         sb.append('&');
                     }
-                    sb.append(simpleName(superBounds[i]));
+                    visit(superBounds[i]);
                 }
             } else if ((extendBounds.length == 1 && !extendBounds[0].equals(Object.class)) || extendBounds.length > 1) {
                 sb.append(" extends ");
@@ -584,26 +812,22 @@ public final class JavaType {
                     if (i > 0) {
                         sb.append('&');
                     }
-                    sb.append(simpleName(extendBounds[i]));
+                    visit(extendBounds[i]);
                 }
             }
-        } else if (type instanceof TypeVariable) {
-            sb.append(((TypeVariable<?>) type).getName());
-        } else {
-            throw new IllegalArgumentException(type.getClass().getName());
+            return sb;
         }
-    }
 
-    private static boolean arrayEqualRefs(Object[] src, Object[] dst) {
-        if (src.length != dst.length) {
-            return false;
+        @Override
+        public StringBuilder visitArray(GenericArrayType type) {
+            return visit(type.getGenericComponentType()).append("[]");
         }
-        for (int i = 0; i < src.length; i++) {
-            if (src[i] != dst[i]) {
-                return false;
-            }
+
+        @Override
+        public StringBuilder visitVariable(TypeVariable<?> type) {
+            return sb.append(type.getName());
         }
-        return true;
+
     }
 
     private JavaType() {
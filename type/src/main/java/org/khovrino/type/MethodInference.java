@@ -0,0 +1,275 @@
+package org.khovrino.type;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class MethodInference {
+
+    private static final Map<Class<?>, Class<?>> BOXES = Map.of(boolean.class, Boolean.class, char.class,
+            Character.class, byte.class, Byte.class, short.class, Short.class, int.class, Integer.class, long.class,
+            Long.class, float.class, Float.class, double.class, Double.class, void.class, Void.class);
+
+    private static final Map<Class<?>, Set<Class<?>>> WIDENINGS = Map.of(
+            byte.class, Set.of(short.class, int.class, long.class, float.class, double.class),
+            short.class, Set.of(int.class, long.class, float.class, double.class),
+            char.class, Set.of(int.class, long.class, float.class, double.class),
+            int.class, Set.of(long.class, float.class, double.class),
+            long.class, Set.of(float.class, double.class),
+            float.class, Set.of(double.class));
+
+    private static final ClassValue<Map<Method, Template>> TEMPLATES = new ClassValue<>() {
+        @Override
+        protected Map<Method, Template> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static final TypeCache<MethodInference> CACHE = TypeCache.create("inferences");
+
+    public static MethodInference infer(Method method, Type... argumentTypes) {
+        return infer(null, method, argumentTypes);
+    }
+
+    public static MethodInference infer(Type ownerType, Method method, Type... argumentTypes) {
+        Objects.requireNonNull(method);
+        Template template = template(method);
+        if (template.isStatic) {
+            ownerType = null;
+        }
+        Key key = new Key(template, ownerType, argumentTypes.clone());
+        return CACHE.get(key, TypeCache.anchor(TypeCache.anchor(method.getDeclaringClass(), key.argumentTypes),
+                new Type[] { ownerType }), MethodInference::new);
+    }
+
+    static void prepare(Class<?> clazz) {
+        for (Method method : clazz.getMethods()) {
+            template(method);
+        }
+    }
+
+    private static Template template(Method method) {
+        Map<Method, Template> templates = TEMPLATES.get(method.getDeclaringClass());
+        Template template = templates.get(method);
+        if (template == null) {
+            Template created = new Template(method);
+            template = templates.putIfAbsent(method, created);
+            if (template == null) {
+                template = created;
+            }
+        }
+        return template;
+    }
+
+    private final Method method;
+    private final Map<TypeVariable<?>, Type> typeArguments;
+    private final Type returnType;
+    private final List<Type> parameterTypes;
+
+    private MethodInference(Key key) {
+        Template template = key.template;
+        this.method = template.method;
+        Map<TypeVariable<?>, Type> ownerArgs = key.ownerType == null ? Map.of()
+                : JavaType.typeArguments(JavaType.downgrade(key.ownerType, method.getDeclaringClass()));
+        Type[] args = key.argumentTypes;
+        Type[] params = template.parameters(args);
+        if (params == null) {
+            throw new IllegalArgumentException(String.format("%s can't take %d arguments", method, args.length));
+        }
+        boolean[] ground = template.ground(params);
+        if (!ownerArgs.isEmpty()) {
+            params = JavaType.replace(params, ownerArgs);
+        }
+        SolutionSet conjunction = SolutionSet.createTrue();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] == null) {
+                continue;
+            }
+            Type param = params[i];
+            if (JavaType.isPrimitive(param)) {
+                if (!widens(unbox(capture(args[i])), param)) {
+                    throw notApplicable(args);
+                }
+                continue;
+            }
+            Type arg = box(capture(args[i]));
+            if (ownerArgs.isEmpty() && ground[i]) {
+                if (!JavaType.testExtends(arg, param)) {
+                    throw notApplicable(args);
+                }
+            } else {
+                conjunction = conjunction.and(JavaType.solveExtends(arg, param, SolutionMode.FOR_RIGHT_SIDE));
+                if (conjunction.isEmpty()) {
+                    throw notApplicable(args);
+                }
+            }
+        }
+        Map<TypeVariable<?>, Type> solution;
+        try {
+            solution = conjunction.root();
+        } catch (NoSuchElementException e) {
+            throw notApplicable(args);
+        }
+        Map<TypeVariable<?>, Type> typeArguments = new LinkedHashMap<>();
+        for (TypeVariable<?> variable : template.typeParameters) {
+            Type value = solution.get(variable);
+            if (value != null) {
+                typeArguments.put(variable, value);
+            }
+        }
+        Map<TypeVariable<?>, Type> substitution = typeArguments;
+        if (!ownerArgs.isEmpty()) {
+            substitution = new LinkedHashMap<>(ownerArgs);
+            substitution.putAll(typeArguments);
+        }
+        this.typeArguments = Collections.unmodifiableMap(typeArguments);
+        this.returnType = JavaType.replace(template.returnType, substitution);
+        this.parameterTypes = List.of(JavaType.replace(template.parameters(args), substitution));
+    }
+
+    public Method method() {
+        return method;
+    }
+
+    public Map<TypeVariable<?>, Type> typeArguments() {
+        return typeArguments;
+    }
+
+    public Type returnType() {
+        return returnType;
+    }
+
+    public List<Type> parameterTypes() {
+        return parameterTypes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(JavaType.simpleName(returnType)).append(' ').append(method.getName())
+                .append('(');
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            result.append(i == 0 ? "" : ", ").append(JavaType.simpleName(parameterTypes.get(i)));
+        }
+        return result.append(')').toString();
+    }
+
+    private IllegalArgumentException notApplicable(Type[] args) {
+        return new IllegalArgumentException(
+                String.format("%s is not applicable to %s", method.toGenericString(), Arrays.toString(args)));
+    }
+
+    private static Type capture(Type type) {
+        return type instanceof WildcardType wildcard ? wildcard.getUpperBounds()[0] : type;
+    }
+
+    private static boolean widens(Type arg, Type param) {
+        return arg.equals(param) || WIDENINGS.getOrDefault(arg, Set.of()).contains(param);
+    }
+
+    private static Type box(Type type) {
+        Class<?> box = type instanceof Class<?> clazz ? BOXES.get(clazz) : null;
+        return box == null ? type : box;
+    }
+
+    private static Type unbox(Type type) {
+        if (type instanceof Class<?> clazz && !clazz.isPrimitive()) {
+            for (Map.Entry<Class<?>, Class<?>> entry : BOXES.entrySet()) {
+                if (entry.getValue() == clazz) {
+                    return entry.getKey();
+                }
+            }
+        }
+        return type;
+    }
+
+    private static final class Template {
+
+        private final Method method;
+        private final boolean isStatic;
+        private final TypeVariable<?>[] typeParameters;
+        private final Type[] parameterTypes;
+        private final Type varargsComponent;
+        private final Type returnType;
+        private final boolean[] ground;
+        private final boolean varargsGround;
+
+        private Template(Method method) {
+            this.method = method;
+            this.isStatic = Modifier.isStatic(method.getModifiers());
+            this.typeParameters = method.getTypeParameters();
+            this.parameterTypes = method.getGenericParameterTypes();
+            this.returnType = method.getGenericReturnType();
+            this.varargsComponent = method.isVarArgs()
+                    ? JavaType.componentType(parameterTypes[parameterTypes.length - 1])
+                    : null;
+            this.ground = new boolean[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                ground[i] = TypeTerm.of(parameterTypes[i]).ground();
+            }
+            this.varargsGround = varargsComponent != null && TypeTerm.of(varargsComponent).ground();
+        }
+
+        boolean[] ground(Type[] params) {
+            if (params == parameterTypes) {
+                return ground;
+            }
+            boolean[] result = Arrays.copyOf(ground, params.length);
+            Arrays.fill(result, parameterTypes.length - 1, params.length, varargsGround);
+            return result;
+        }
+
+        Type[] parameters(Type[] args) {
+            int fixed = parameterTypes.length;
+            if (varargsComponent == null || (args.length == fixed && args[fixed - 1] != null
+                    && JavaType.erasure(args[fixed - 1]).isArray())) {
+                return args.length == fixed ? parameterTypes : null;
+            }
+            if (args.length < fixed - 1) {
+                return null;
+            }
+            Type[] params = Arrays.copyOf(parameterTypes, args.length, Type[].class);
+            Arrays.fill(params, fixed - 1, args.length, varargsComponent);
+            return params;
+        }
+
+    }
+
+    private static final class Key {
+
+        private final Template template;
+        private final Type ownerType;
+        private final Type[] argumentTypes;
+        private final int hash;
+
+        private Key(Template template, Type ownerType, Type[] argumentTypes) {
+            this.template = template;
+            this.ownerType = ownerType;
+            this.argumentTypes = argumentTypes;
+            this.hash = (template.hashCode() * 31 + Objects.hashCode(ownerType)) * 31 + Arrays.hashCode(argumentTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key that && that.template == template && Objects.equals(that.ownerType, ownerType)
+                    && Arrays.equals(that.argumentTypes, argumentTypes);
+        }
+
+    }
+
+}
@@ -10,6 +10,8 @@ final class ParameterizedTypeImpl implements ParameterizedType {
     private final Type ownerType;
     private final Class<?> rawType;
     private final Type[] actualTypeArguments;
+    private TypeTerm term;
+    private int hash;
 
     ParameterizedTypeImpl(Type ownerType, Class<?> rawType, Type... actualTypeArguments) {
         super();
@@ -33,9 +35,23 @@ final class ParameterizedTypeImpl implements ParameterizedType {
         return Arrays.copyOf(actualTypeArguments, actualTypeArguments.length);
     }
 
+    TypeTerm term() {
+        TypeTerm t = term;
+        if (t == null) {
+            t = TypeTerm.convert(this);
+            term = t;
+        }
+        return t;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hashCode(ownerType) ^ Objects.hashCode(rawType) ^ Arrays.hashCode(actualTypeArguments);
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hashCode(ownerType) ^ Objects.hashCode(rawType) ^ Arrays.hashCode(actualTypeArguments);
+            hash = h;
+        }
+        return h;
     }
 
     @Override
@@ -0,0 +1,54 @@
+package org.khovrino.type;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+final class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    V run(K key, Supplier<? extends V> computation) {
+        Flight<V> flight = new Flight<>(Thread.currentThread());
+        Flight<V> running = flights.putIfAbsent(key, flight);
+        if (running != null) {
+            return running.owner == flight.owner ? computation.get() : running.await();
+        }
+        try {
+            V value = computation.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private static final class Flight<V> extends CompletableFuture<V> {
+
+        private final Thread owner;
+
+        private Flight(Thread owner) {
+            this.owner = owner;
+        }
+
+        V await() {
+            try {
+                return join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                } else if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+    }
+
+}
@@ -2,60 +2,106 @@ package org.khovrino.type;
 
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 final class Solution {
 
+    private static final Solution EMPTY = new Solution(new TypeVariable<?>[0], new VariableSolution[0]);
+
     static Solution empty() {
-        return new Solution();
+        return EMPTY;
     }
 
     static Solution upperBound(TypeVariable<?> variable, Type upperBound) {
-        return Solution.empty().add(variable, VariableSolution.upperBound(upperBound));
+        return new Solution(new TypeVariable<?>[] { variable },
+                new VariableSolution[] { VariableSolution.upperBound(upperBound) });
     }
 
     static Solution lowerBound(TypeVariable<?> variable, Type lowerBound) {
-        return Solution.empty().add(variable, VariableSolution.lowerBound(lowerBound));
+        return new Solution(new TypeVariable<?>[] { variable },
+                new VariableSolution[] { VariableSolution.lowerBound(lowerBound) });
     }
 
-    private final Map<TypeVariable<?>, VariableSolution> boundsMap = new LinkedHashMap<>();
-
-    private Solution() {}
+    private final TypeVariable<?>[] variables;
+    private final VariableSolution[] bounds;
+    private final int hash;
 
-    private Solution add(TypeVariable<?> variable, VariableSolution otherBounds) {
-        VariableSolution bounds = boundsMap.get(variable);
-        if (bounds == null) {
-            bounds = VariableSolution.empty();
-            boundsMap.put(variable, bounds);
+    private Solution(TypeVariable<?>[] variables, VariableSolution[] bounds) {
+        this.variables = variables;
+        this.bounds = bounds;
+        int h = 0;
+        for (int i = 0; i < variables.length; i++) {
+            h += variables[i].hashCode() ^ bounds[i].hashCode();
         }
-        bounds.add(otherBounds);
-        return this;
+        this.hash = h;
     }
 
     Solution add(Solution that) {
-        for (Map.Entry<TypeVariable<?>, VariableSolution> entry : that.boundsMap.entrySet()) {
-            add(entry.getKey(), entry.getValue());
+        if (that == this || that.variables.length == 0) {
+            return this;
+        } else if (this.variables.length == 0) {
+            return that;
+        }
+        int capacity = this.variables.length + that.variables.length;
+        TypeVariable<?>[] vars = this.variables;
+        VariableSolution[] values = this.bounds;
+        int size = vars.length;
+        for (int j = 0; j < that.variables.length; j++) {
+            int i = indexOf(vars, size, that.variables[j]);
+            if (i >= 0) {
+                VariableSolution merged = values[i].add(that.bounds[j]);
+                if (merged != values[i]) {
+                    if (values == this.bounds) {
+                        values = Arrays.copyOf(values, capacity);
+                    }
+                    values[i] = merged;
+                }
+            } else {
+                if (vars == this.variables) {
+                    vars = Arrays.copyOf(vars, capacity);
+                }
+                if (values == this.bounds) {
+                    values = Arrays.copyOf(values, capacity);
+                }
+                vars[size] = that.variables[j];
+                values[size] = that.bounds[j];
+                size++;
+            }
         }
-        return this;
+        if (vars == this.variables && values == this.bounds) {
+            return this;
+        }
+        return new Solution(vars.length == size ? vars : Arrays.copyOf(vars, size),
+                values.length == size ? values : Arrays.copyOf(values, size));
     }
 
     boolean isEmpty() {
-        return boundsMap.isEmpty();
+        return variables.length == 0;
     }
 
     Map<TypeVariable<?>, Type> root() {
         Map<TypeVariable<?>, Type> result = new LinkedHashMap<>();
-        for (Map.Entry<TypeVariable<?>, VariableSolution> entry : boundsMap.entrySet()) {
-            result.put(entry.getKey(), entry.getValue().root());
+        for (int i = 0; i < variables.length; i++) {
+            result.put(variables[i], bounds[i].root());
         }
         return Collections.unmodifiableMap(result);
     }
 
+    private static int indexOf(TypeVariable<?>[] vars, int size, TypeVariable<?> var) {
+        for (int i = 0; i < size; i++) {
+            if (vars[i].equals(var)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     @Override
     public int hashCode() {
-        return boundsMap.hashCode();
+        return hash;
     }
 
     @Override
@@ -63,7 +109,16 @@ final class Solution {
         if (obj == this) {
             return true;
         } else if (obj instanceof Solution that) {
-            return this.boundsMap.equals(that.boundsMap);
+            if (this.hash != that.hash || this.variables.length != that.variables.length) {
+                return false;
+            }
+            for (int i = 0; i < variables.length; i++) {
+                int j = indexOf(that.variables, that.variables.length, variables[i]);
+                if (j < 0 || !bounds[i].equals(that.bounds[j])) {
+                    return false;
+                }
+            }
+            return true;
         } else {
             return false;
         }
@@ -71,7 +126,14 @@ final class Solution {
 
     @Override
     public String toString() {
-        return boundsMap.toString();
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < variables.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(variables[i]).append('=').append(bounds[i]);
+        }
+        return sb.append('}').toString();
     }
 
 }
@@ -2,66 +2,78 @@ package org.khovrino.type;
 
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
-import java.util.LinkedHashSet;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 final class SolutionSet {
 
+    private static final SolutionSet FALSE = new SolutionSet(new Solution[0]);
+
+    private static final SolutionSet TRUE = new SolutionSet(new Solution[] { Solution.empty() });
+
     static SolutionSet createFalse() {
-        return new SolutionSet(false);
+        return FALSE;
     }
 
     static SolutionSet createTrue() {
-        return new SolutionSet(true);
+        return TRUE;
     }
 
     static SolutionSet createConst(boolean condition) {
-        return new SolutionSet(condition);
+        return condition ? TRUE : FALSE;
     }
 
     static SolutionSet createUpperBound(TypeVariable<?> variable, Type upperBound) {
-        return new SolutionSet(Solution.upperBound(variable, upperBound));
+        return new SolutionSet(new Solution[] { Solution.upperBound(variable, upperBound) });
     }
 
     static SolutionSet createLowerBound(TypeVariable<?> variable, Type lowerBound) {
-        return new SolutionSet(Solution.lowerBound(variable, lowerBound));
+        return new SolutionSet(new Solution[] { Solution.lowerBound(variable, lowerBound) });
     }
 
-    private final Set<Solution> cases = new LinkedHashSet<>();
+    private final Solution[] cases;
 
-    private SolutionSet(boolean initialValue) {
-        if (initialValue) {
-            cases.add(Solution.empty());
-        }
+    private SolutionSet(Solution[] cases) {
+        this.cases = cases;
     }
 
-    private SolutionSet(Solution initialCase) {
-        cases.add(initialCase);
-    }
-
-    void and(SolutionSet that) {
-        List<Solution> ptoduct = new LinkedList<>();
+    SolutionSet and(SolutionSet that) {
+        if (this == FALSE || that == TRUE) {
+            return this;
+        } else if (that == FALSE || this == TRUE) {
+            return that;
+        }
+        Solution[] product = new Solution[this.cases.length * that.cases.length];
+        int size = 0;
         for (Solution thisCase : this.cases) {
             for (Solution thatCase : that.cases) {
-                Solution p = Solution.empty().add(thisCase).add(thatCase);
-                ptoduct.add(p);
+                size = addDistinct(product, size, thisCase.add(thatCase));
             }
         }
-        this.cases.clear();
-        this.cases.addAll(ptoduct);
+        return create(product, size);
     }
 
-    void or(SolutionSet that) {
-        cases.addAll(that.cases);
+    SolutionSet or(SolutionSet that) {
+        if (that == FALSE || that == this) {
+            return this;
+        } else if (this == FALSE) {
+            return that;
+        }
+        Solution[] union = Arrays.copyOf(this.cases, this.cases.length + that.cases.length);
+        int size = this.cases.length;
+        for (Solution thatCase : that.cases) {
+            size = addDistinct(union, size, thatCase);
+        }
+        return size == this.cases.length ? this : create(union, size);
+    }
+
+    int size() {
+        return cases.length;
     }
 
     public boolean isEmpty() {
-        return cases.isEmpty();
+        return cases.length == 0;
     }
 
     public boolean isIdentity() {
@@ -74,12 +86,39 @@ final class SolutionSet {
     }
 
     public Map<TypeVariable<?>, Type> root() throws NoSuchElementException {
-        return cases.stream().findAny().map(Solution::root).orElseThrow();
+        if (cases.length == 0) {
+            throw new NoSuchElementException();
+        }
+        return cases[0].root();
+    }
+
+    private static int addDistinct(Solution[] cases, int size, Solution c) {
+        for (int i = 0; i < size; i++) {
+            if (cases[i].equals(c)) {
+                return size;
+            }
+        }
+        cases[size] = c;
+        return size + 1;
+    }
+
+    private static SolutionSet create(Solution[] cases, int size) {
+        if (size == 0) {
+            return FALSE;
+        } else if (size == 1 && cases[0].isEmpty()) {
+            return TRUE;
+        } else {
+            return new SolutionSet(size == cases.length ? cases : Arrays.copyOf(cases, size));
+        }
     }
 
     @Override
     public int hashCode() {
-        return cases.hashCode();
+        int h = 0;
+        for (Solution c : cases) {
+            h += c.hashCode();
+        }
+        return h;
     }
 
     @Override
@@ -87,7 +126,15 @@ final class SolutionSet {
         if (obj == this) {
             return true;
         } else if (obj instanceof SolutionSet that) {
-            return this.cases.equals(that.cases);
+            if (this.cases.length != that.cases.length) {
+                return false;
+            }
+            for (Solution c : this.cases) {
+                if (!Arrays.asList(that.cases).contains(c)) {
+                    return false;
+                }
+            }
+            return true;
         } else {
             return false;
         }
@@ -99,4 +146,3 @@ final class SolutionSet {
     }
 
 }
-
@@ -0,0 +1,169 @@
+package org.khovrino.type;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+final class SolverArena {
+
+    private static final ThreadLocal<SolverArena> CURRENT = new ThreadLocal<>() {
+        @Override
+        protected SolverArena initialValue() {
+            return new SolverArena(false);
+        }
+    };
+
+    private static final int PROBES = 8;
+
+    private static final AtomicReferenceArray<SolverArena> POOL = new AtomicReferenceArray<>(
+            Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 8 - 1) << 1);
+
+    static SolverArena acquire() {
+        if (!JavaType.VIRTUAL_THREADS) {
+            return CURRENT.get();
+        }
+        int start = System.identityHashCode(Thread.currentThread());
+        for (int i = 0; i < PROBES; i++) {
+            SolverArena arena = POOL.getAndSet(slot(start, i), null);
+            if (arena != null) {
+                arena.home = start;
+                return arena;
+            }
+        }
+        SolverArena arena = new SolverArena(true);
+        arena.home = start;
+        return arena;
+    }
+
+    private static int slot(int start, int probe) {
+        return (start + probe) & (POOL.length() - 1);
+    }
+
+    private TypeVariable<?>[] variables = new TypeVariable<?>[32];
+    private Type[] arguments = new Type[32];
+    private int top;
+
+    private TypeVariable<?>[] termVariables = new TypeVariable<?>[16];
+    private TypeTerm[] termValues = new TypeTerm[16];
+
+    private final Map<Type, Type> memo = new IdentityHashMap<>();
+    private final Deque<Type> stack = new ArrayDeque<>();
+    private final Substitution substitution = new Substitution();
+    private final boolean pooled;
+    private int home;
+
+    private SolverArena(boolean pooled) {
+        this.pooled = pooled;
+    }
+
+    void release() {
+        for (int i = 0; pooled && i < PROBES; i++) {
+            if (POOL.compareAndSet(slot(home, i), null, this)) {
+                return;
+            }
+        }
+    }
+
+    int mark() {
+        return top;
+    }
+
+    void reset(int mark) {
+        Arrays.fill(arguments, mark, top, null);
+        Arrays.fill(variables, mark, top, null);
+        top = mark;
+    }
+
+    TypeVariable<?> variable(int index) {
+        return variables[index];
+    }
+
+    Type argument(int index) {
+        return arguments[index];
+    }
+
+    void pushArguments(Type type) {
+        if (type instanceof ParameterizedType paramType) {
+            if (paramType.getOwnerType() instanceof ParameterizedType owner) {
+                pushArguments(owner);
+            }
+            ClassHierarchy hierarchy = ClassHierarchy.of((Class<?>) paramType.getRawType());
+            Type[] args = paramType.getActualTypeArguments();
+            for (int i = 0; i < hierarchy.typeParameterCount(); i++) {
+                push(hierarchy.typeParameter(i), args[i]);
+            }
+        } else if (type instanceof Class<?>) {
+            JavaType.requireNonRawClass(type);
+        } else {
+            JavaType.typeArguments(type).forEach(this::push);
+        }
+    }
+
+    Type substituteArguments(Type template, Type type) {
+        if (template instanceof Class<?> || substitution.active) {
+            return JavaType.replace(template, JavaType.typeArguments(type));
+        }
+        int mark = top;
+        try {
+            pushArguments(type);
+            substitution.active = true;
+            substitution.from = mark;
+            return substitution.rewrite(template, memo, stack);
+        } finally {
+            substitution.active = false;
+            memo.clear();
+            stack.clear();
+            reset(mark);
+        }
+    }
+
+    TypeVariable<?>[] termVariables(int count) {
+        if (termVariables.length < count) {
+            termVariables = new TypeVariable<?>[Math.max(count, termVariables.length * 2)];
+            termValues = new TypeTerm[termVariables.length];
+        }
+        return termVariables;
+    }
+
+    TypeTerm[] termValues() {
+        return termValues;
+    }
+
+    void clearTerms(int count) {
+        Arrays.fill(termVariables, 0, count, null);
+        Arrays.fill(termValues, 0, count, null);
+    }
+
+    private void push(TypeVariable<?> variable, Type argument) {
+        if (top == arguments.length) {
+            arguments = Arrays.copyOf(arguments, top * 2);
+            variables = Arrays.copyOf(variables, top * 2);
+        }
+        variables[top] = variable;
+        arguments[top++] = argument;
+    }
+
+    private final class Substitution extends TypeRewriter {
+
+        private boolean active;
+        private int from;
+
+        @Override
+        protected Type rewriteVariable(TypeVariable<?> variable) {
+            for (int i = from; i < top; i++) {
+                if (variables[i].equals(variable)) {
+                    return arguments[i];
+                }
+            }
+            return variable;
+        }
+
+    }
+
+}
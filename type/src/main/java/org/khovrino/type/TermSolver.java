@@ -0,0 +1,352 @@
+package org.khovrino.type;
+
+import java.lang.reflect.TypeVariable;
+import java.util.Arrays;
+
+final class TermSolver {
+
+    static boolean testExtends(TypeTerm subType, TypeTerm superType) {
+        if (subType instanceof TypeTerm.Wildcard || superType instanceof TypeTerm.Wildcard) {
+            throw new IllegalArgumentException();
+        }
+        if (isPrimitive(subType) || isPrimitive(superType)) {
+            return subType.equals(superType);
+        }
+        if (superType instanceof TypeTerm.ClassRef classRef && classRef.type() == Object.class) {
+            return true;
+        }
+        if (isArray(subType)) {
+            return isArray(superType) && testExtends(componentType(subType), componentType(superType));
+        } else if (isArray(superType)) {
+            return false;
+        }
+        Class<?> superClass = rawType(superType);
+        Class<?> subClass = rawType(subType);
+        if (!superClass.isAssignableFrom(subClass)) {
+            return false;
+        } else if (subClass.equals(superClass)) {
+            return argumentsContainedBy(subType, superType);
+        }
+        TypeTerm template = ClassHierarchy.of(subClass).supertypeTemplateTerm(superClass);
+        if (template instanceof TypeTerm.ClassRef classRef) {
+            JavaType.requireNonRawClass(classRef.type());
+        }
+        return argumentsContainedBy(template, subType, superType);
+    }
+
+    static boolean isPrimitive(TypeTerm term) {
+        return term instanceof TypeTerm.ClassRef classRef && classRef.type().isPrimitive();
+    }
+
+    static boolean isArray(TypeTerm term) {
+        if (term instanceof TypeTerm.Array) {
+            return true;
+        } else if (term instanceof TypeTerm.ClassRef classRef) {
+            return classRef.type().isArray();
+        } else if (term instanceof TypeTerm.Variable) {
+            throw new IllegalArgumentException();
+        }
+        return false;
+    }
+
+    static TypeTerm componentType(TypeTerm term) {
+        if (term instanceof TypeTerm.Array array) {
+            return array.component();
+        } else if (term instanceof TypeTerm.ClassRef classRef) {
+            return TypeTerm.of(classRef.type().getComponentType());
+        }
+        throw new IllegalArgumentException(String.format("Not an array: %s", term.toType().getTypeName()));
+    }
+
+    static Class<?> rawType(TypeTerm term) {
+        if (term instanceof TypeTerm.ClassRef classRef) {
+            return (Class<?>) JavaType.requireNonRawClass(classRef.type());
+        } else if (term instanceof TypeTerm.Parameterized p) {
+            return p.raw();
+        } else if (term instanceof TypeTerm.Array array) {
+            return rawType(array.component()).arrayType();
+        }
+        throw new IllegalArgumentException();
+    }
+
+    static TypeTerm downgrade(TypeTerm subType, Class<?> superClass) {
+        Class<?> subClass = rawType(subType);
+        if (subClass.equals(superClass)) {
+            return subType;
+        }
+        TypeTerm template = ClassHierarchy.of(subClass).supertypeTemplateTerm(superClass);
+        if (template.ground()) {
+            return template;
+        }
+        int count = argumentCount(subType);
+        if (!JavaType.SOLVER_ARENA) {
+            return substitute(template, variables(subType, new TypeVariable<?>[count], count),
+                    values(subType, new TypeTerm[count], count), count);
+        }
+        SolverArena arena = SolverArena.acquire();
+        try {
+            return substitute(template, variables(subType, arena.termVariables(count), count),
+                    values(subType, arena.termValues(), count), count);
+        } finally {
+            arena.clearTerms(count);
+            arena.release();
+        }
+    }
+
+    private static int argumentCount(TypeTerm subType) {
+        int count = 0;
+        for (TypeTerm t = subType; t instanceof TypeTerm.Parameterized p; t = p.owner()) {
+            count += p.args().length;
+        }
+        return count;
+    }
+
+    private static TypeVariable<?>[] variables(TypeTerm subType) {
+        int count = argumentCount(subType);
+        return variables(subType, new TypeVariable<?>[count], count);
+    }
+
+    private static TypeVariable<?>[] variables(TypeTerm subType, TypeVariable<?>[] variables, int count) {
+        for (TypeTerm t = subType; t instanceof TypeTerm.Parameterized p; t = p.owner()) {
+            ClassHierarchy hierarchy = ClassHierarchy.of(p.raw());
+            count -= p.args().length;
+            for (int i = 0; i < p.args().length; i++) {
+                variables[count + i] = hierarchy.typeParameter(i);
+            }
+        }
+        return variables;
+    }
+
+    private static TypeTerm[] values(TypeTerm subType, int count) {
+        return values(subType, new TypeTerm[count], count);
+    }
+
+    private static TypeTerm[] values(TypeTerm subType, TypeTerm[] values, int count) {
+        for (TypeTerm t = subType; t instanceof TypeTerm.Parameterized p; t = p.owner()) {
+            count -= p.args().length;
+            System.arraycopy(p.args(), 0, values, count, p.args().length);
+        }
+        return values;
+    }
+
+    static TypeTerm substitute(TypeTerm term, TypeVariable<?>[] variables, TypeTerm[] values) {
+        return substitute(term, variables, values, variables.length);
+    }
+
+    private static TypeTerm substitute(TypeTerm term, TypeVariable<?>[] variables, TypeTerm[] values, int count) {
+        if (term.ground()) {
+            return term;
+        }
+        if (term instanceof TypeTerm.Variable v) {
+            for (int i = 0; i < count; i++) {
+                if (variables[i].equals(v.variable())) {
+                    return values[i];
+                }
+            }
+            return term;
+        } else if (term instanceof TypeTerm.Array array) {
+            TypeTerm component = substitute(array.component(), variables, values, count);
+            return component == array.component() ? term : new TypeTerm.Array(component);
+        } else if (term instanceof TypeTerm.Wildcard w) {
+            TypeTerm[] lower = substitute(w.lowerBounds(), variables, values, count);
+            TypeTerm[] upper = substitute(w.upperBounds(), variables, values, count);
+            return lower == w.lowerBounds() && upper == w.upperBounds() ? term : new TypeTerm.Wildcard(lower, upper);
+        } else if (term instanceof TypeTerm.Parameterized p) {
+            TypeTerm owner = p.owner() == null ? null : substitute(p.owner(), variables, values, count);
+            TypeTerm[] args = substitute(p.args(), variables, values, count);
+            return owner == p.owner() && args == p.args() ? term : new TypeTerm.Parameterized(owner, p.raw(), args);
+        }
+        return term;
+    }
+
+    private static TypeTerm[] substitute(TypeTerm[] terms, TypeVariable<?>[] variables, TypeTerm[] values,
+            int count) {
+        TypeTerm[] result = terms;
+        for (int i = 0; i < terms.length; i++) {
+            TypeTerm term = substitute(terms[i], variables, values, count);
+            if (term != terms[i]) {
+                if (result == terms) {
+                    result = terms.clone();
+                }
+                result[i] = term;
+            }
+        }
+        return result;
+    }
+
+    private static boolean argumentsContainedBy(TypeTerm subType, TypeTerm superType) {
+        if (subType instanceof TypeTerm.Parameterized sub && superType instanceof TypeTerm.Parameterized sup) {
+            if (!argumentsContainedBy(sub.owner(), sup.owner())) {
+                return false;
+            }
+            TypeTerm[] subArgs = sub.args();
+            TypeTerm[] superArgs = sup.args();
+            for (int i = 0; i < subArgs.length; i++) {
+                if (!containedBy(subArgs[i], superArgs[i])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean argumentsContainedBy(TypeTerm template, TypeTerm subType, TypeTerm superType) {
+        if (template instanceof TypeTerm.Parameterized sub && superType instanceof TypeTerm.Parameterized sup) {
+            if (!argumentsContainedBy(sub.owner(), subType, sup.owner())) {
+                return false;
+            }
+            TypeTerm[] subArgs = sub.args();
+            TypeTerm[] superArgs = sup.args();
+            for (int i = 0; i < subArgs.length; i++) {
+                if (!containedBy(resolve(subArgs[i], subType), superArgs[i])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static TypeTerm resolve(TypeTerm term, TypeTerm subType) {
+        if (term.ground()) {
+            return term;
+        } else if (term instanceof TypeTerm.Variable variable) {
+            for (TypeTerm t = subType; t instanceof TypeTerm.Parameterized p; t = p.owner()) {
+                ClassHierarchy hierarchy = ClassHierarchy.of(p.raw());
+                for (int i = 0; i < p.args().length; i++) {
+                    if (hierarchy.typeParameter(i).equals(variable.variable())) {
+                        return p.args()[i];
+                    }
+                }
+            }
+            return term;
+        }
+        return substitute(term, variables(subType), values(subType, argumentCount(subType)));
+    }
+
+    private static boolean containedBy(TypeTerm innerRange, TypeTerm outerRange) {
+        if (outerRange instanceof TypeTerm.Wildcard outer) {
+            for (TypeTerm outerExtendsBound : outer.upperBounds()) {
+                if (!innerExtends(innerRange, outerExtendsBound)) {
+                    return false;
+                }
+            }
+            for (TypeTerm outerSuperBound : outer.lowerBounds()) {
+                if (!innerSuper(innerRange, outerSuperBound)) {
+                    return false;
+                }
+            }
+            return true;
+        } else {
+            return innerExtends(innerRange, outerRange) && innerSuper(innerRange, outerRange);
+        }
+    }
+
+    private static boolean innerExtends(TypeTerm innerRange, TypeTerm outerExtendsBound) {
+        if (innerRange instanceof TypeTerm.Wildcard inner) {
+            for (TypeTerm innerExtendsBound : inner.upperBounds()) {
+                if (testExtends(innerExtendsBound, outerExtendsBound)) {
+                    return true;
+                }
+            }
+            return false;
+        } else {
+            return testExtends(innerRange, outerExtendsBound);
+        }
+    }
+
+    private static boolean innerSuper(TypeTerm innerRange, TypeTerm outerSuperBound) {
+        if (innerRange instanceof TypeTerm.Wildcard inner) {
+            for (TypeTerm innerSuperBound : inner.lowerBounds()) {
+                if (testExtends(outerSuperBound, innerSuperBound)) {
+                    return true;
+                }
+            }
+            return false;
+        } else {
+            return testExtends(outerSuperBound, innerRange);
+        }
+    }
+
+    static final class Ancestors {
+
+        private final TypeTerm subType;
+        private Class<?> subClass;
+        private TypeVariable<?>[] variables;
+        private TypeTerm[] values;
+        private Class<?>[] classes = new Class<?>[4];
+        private TypeTerm[] supertypes = new TypeTerm[4];
+        private int size;
+        private Ancestors component;
+
+        Ancestors(TypeTerm subType) {
+            this.subType = subType;
+        }
+
+        boolean testExtends(TypeTerm superType) {
+            if (subType instanceof TypeTerm.Wildcard || superType instanceof TypeTerm.Wildcard) {
+                throw new IllegalArgumentException();
+            }
+            if (isPrimitive(subType) || isPrimitive(superType)) {
+                return subType.equals(superType);
+            }
+            if (superType instanceof TypeTerm.ClassRef classRef && classRef.type() == Object.class) {
+                return true;
+            }
+            if (isArray(subType)) {
+                if (!isArray(superType)) {
+                    return false;
+                }
+                if (component == null) {
+                    component = new Ancestors(componentType(subType));
+                }
+                return component.testExtends(componentType(superType));
+            } else if (isArray(superType)) {
+                return false;
+            }
+            if (subClass == null) {
+                subClass = rawType(subType);
+            }
+            Class<?> superClass = rawType(superType);
+            if (!superClass.isAssignableFrom(subClass)) {
+                return false;
+            }
+            return argumentsContainedBy(downgrade(superClass), superType);
+        }
+
+        private TypeTerm downgrade(Class<?> superClass) {
+            for (int i = 0; i < size; i++) {
+                if (classes[i] == superClass) {
+                    return supertypes[i];
+                }
+            }
+            TypeTerm supertype;
+            if (subClass.equals(superClass)) {
+                supertype = subType;
+            } else {
+                TypeTerm template = ClassHierarchy.of(subClass).supertypeTemplateTerm(superClass);
+                if (template.ground()) {
+                    supertype = template;
+                } else {
+                    if (variables == null) {
+                        variables = variables(subType);
+                        values = values(subType, variables.length);
+                    }
+                    supertype = substitute(template, variables, values);
+                }
+            }
+            if (size == classes.length) {
+                classes = Arrays.copyOf(classes, size * 2);
+                supertypes = Arrays.copyOf(supertypes, size * 2);
+            }
+            classes[size] = superClass;
+            supertypes[size++] = supertype;
+            return supertype;
+        }
+
+    }
+
+    private TermSolver() {
+        throw new UnsupportedOperationException();
+    }
+
+}
@@ -0,0 +1,259 @@
+package org.khovrino.type;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public final class TypeBatch {
+
+    private static final int THRESHOLD = 512;
+
+    private static final Object NULL = new Object();
+
+    public static TypeBatch of(Type... types) {
+        return new TypeBatch(types.clone(), null);
+    }
+
+    public static TypeBatch of(Collection<? extends Type> types) {
+        return new TypeBatch(types.toArray(new Type[0]), null);
+    }
+
+    public static TypeBatch of(Stream<? extends Type> types) {
+        return new TypeBatch(types.toArray(Type[]::new), null);
+    }
+
+    private final Type[] types;
+    private final ForkJoinPool pool;
+
+    private TypeBatch(Type[] types, ForkJoinPool pool) {
+        for (Type type : types) {
+            Objects.requireNonNull(type);
+        }
+        this.types = types;
+        this.pool = pool;
+    }
+
+    public TypeBatch parallel() {
+        return parallel(ForkJoinPool.commonPool());
+    }
+
+    public TypeBatch parallel(ForkJoinPool pool) {
+        return new TypeBatch(types, Objects.requireNonNull(pool));
+    }
+
+    public int size() {
+        return types.length;
+    }
+
+    public List<Type> types() {
+        return List.of(types);
+    }
+
+    public List<Class<?>> rawTypes() {
+        return map(JavaType::rawType);
+    }
+
+    public List<Map<TypeVariable<?>, Type>> typeArguments() {
+        Map<Object, Object> arguments = memo();
+        return run(type -> typeArguments(type, arguments));
+    }
+
+    public List<Type> downgrade(Class<?> superClass) {
+        Objects.requireNonNull(superClass);
+        Map<Object, Object> arguments = memo();
+        Map<Object, Object> templates = memo();
+        Map<Object, Object> substitutions = memo();
+        return run(type -> downgrade(type, superClass, arguments, templates, substitutions));
+    }
+
+    public List<String> simpleNames() {
+        Map<Object, Object> names = memo();
+        return run(type -> simpleName(type, names));
+    }
+
+    public <R> List<R> map(Function<? super Type, ? extends R> operation) {
+        Objects.requireNonNull(operation);
+        Map<Object, Object> results = memo();
+        return run(type -> memoized(results, type, operation));
+    }
+
+    private boolean split() {
+        return pool != null && types.length > THRESHOLD;
+    }
+
+    private Map<Object, Object> memo() {
+        return split() ? new ConcurrentHashMap<>() : new HashMap<>();
+    }
+
+    private <R> List<R> run(Function<Type, ? extends R> operation) {
+        Object[] results = new Object[types.length];
+        Chunk chunk = new Chunk(operation, results, 0, types.length);
+        if (!split()) {
+            chunk.compute();
+        } else {
+            pool.invoke(chunk);
+        }
+        @SuppressWarnings("unchecked")
+        List<R> list = (List<R>) Collections.unmodifiableList(Arrays.asList(results));
+        return list;
+    }
+
+    private static <K, R> R memoized(Map<Object, Object> memo, K key, Function<? super K, ? extends R> operation) {
+        Object result = memo.get(key);
+        if (result == null) {
+            result = operation.apply(key);
+            memo.put(key, result == null ? NULL : result);
+        }
+        @SuppressWarnings("unchecked")
+        R r = result == NULL ? null : (R) result;
+        return r;
+    }
+
+    private static Map<TypeVariable<?>, Type> typeArguments(Type type, Map<Object, Object> memo) {
+        if (type instanceof ParameterizedType p) {
+            return memoized(memo, p, key -> {
+                Map<TypeVariable<?>, Type> map = new LinkedHashMap<>();
+                if (p.getOwnerType() instanceof ParameterizedType owner) {
+                    map.putAll(typeArguments(owner, memo));
+                }
+                ClassHierarchy hierarchy = ClassHierarchy.of((Class<?>) p.getRawType());
+                Type[] args = p.getActualTypeArguments();
+                for (int i = 0; i < hierarchy.typeParameterCount(); i++) {
+                    map.put(hierarchy.typeParameter(i), args[i]);
+                }
+                return Collections.unmodifiableMap(map);
+            });
+        } else if (type instanceof GenericArrayType array) {
+            return typeArguments(array.getGenericComponentType(), memo);
+        } else {
+            return memoized(memo, type, key -> Collections.unmodifiableMap(JavaType.typeArguments(key)));
+        }
+    }
+
+    private static Type downgrade(Type type, Class<?> superClass, Map<Object, Object> arguments,
+            Map<Object, Object> templates, Map<Object, Object> substitutions) {
+        if (type instanceof ParameterizedType p && p.getRawType() instanceof Class<?> subClass
+                && !subClass.equals(superClass) && !superClass.equals(Object.class)
+                && superClass.isAssignableFrom(subClass)) {
+            Type template = ClassHierarchy.of(subClass).supertypeTemplate(superClass);
+            List<TypeVariable<?>> variables = memoized(templates, template, TypeBatch::variables);
+            Map<TypeVariable<?>, Type> args = typeArguments(p, arguments);
+            Object[] key = new Object[variables.size() + 1];
+            key[0] = template;
+            for (int i = 0; i < variables.size(); i++) {
+                key[i + 1] = args.get(variables.get(i));
+            }
+            return memoized(substitutions, Arrays.asList(key), k -> JavaType.downgrade(p, superClass));
+        }
+        return memoized(substitutions, type, key -> JavaType.downgrade(key, superClass));
+    }
+
+    private static List<TypeVariable<?>> variables(Type template) {
+        Set<TypeVariable<?>> variables = new LinkedHashSet<>();
+        collectVariables(template, variables);
+        return List.copyOf(variables);
+    }
+
+    private static void collectVariables(Type type, Set<TypeVariable<?>> variables) {
+        if (type instanceof TypeVariable<?> variable) {
+            variables.add(variable);
+        } else if (type instanceof ParameterizedType p) {
+            if (p.getOwnerType() != null) {
+                collectVariables(p.getOwnerType(), variables);
+            }
+            for (Type arg : p.getActualTypeArguments()) {
+                collectVariables(arg, variables);
+            }
+        } else if (type instanceof GenericArrayType array) {
+            collectVariables(array.getGenericComponentType(), variables);
+        } else if (type instanceof WildcardType wildcard) {
+            for (Type bound : wildcard.getUpperBounds()) {
+                collectVariables(bound, variables);
+            }
+            for (Type bound : wildcard.getLowerBounds()) {
+                collectVariables(bound, variables);
+            }
+        }
+    }
+
+    private static String simpleName(Type type, Map<Object, Object> memo) {
+        if (type instanceof ParameterizedType p) {
+            return memoized(memo, p, key -> {
+                StringBuilder sb = new StringBuilder();
+                if (p.getOwnerType() instanceof ParameterizedType owner) {
+                    sb.append(simpleName(owner, memo)).append('.');
+                }
+                sb.append(((Class<?>) p.getRawType()).getSimpleName());
+                Type[] args = p.getActualTypeArguments();
+                if (args.length > 0) {
+                    sb.append('<');
+                    for (int i = 0; i < args.length; i++) {
+                        if (i > 0) {
+                            sb.append(',');
+                        }
+                        sb.append(simpleName(args[i], memo));
+                    }
+                    sb.append('>');
+                }
+                return sb.toString();
+            });
+        } else if (type instanceof GenericArrayType array) {
+            return memoized(memo, array, key -> simpleName(array.getGenericComponentType(), memo) + "[]");
+        } else {
+            return memoized(memo, type, JavaType::simpleName);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TypeBatch[" + types.length + (pool == null ? "" : ", parallel") + "]";
+    }
+
+    private final class Chunk extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Function<Type, ?> operation;
+        private final Object[] results;
+        private final int from;
+        private final int to;
+
+        private Chunk(Function<Type, ?> operation, Object[] results, int from, int to) {
+            this.operation = operation;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (split() && to - from > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Chunk(operation, results, from, middle), new Chunk(operation, results, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                results[i] = operation.apply(types[i]);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,476 @@
+package org.khovrino.type;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Executable;
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A cache keyed by types, partitioned by the class loader that anchors each key. Partitions are held weakly, so a
+ * cache never keeps a class loader alive. Keys are held strongly within their partition: most keys are freshly built
+ * types compared by equality, which a weakly keyed table would lose right after the lookup. Memory is bounded by two
+ * process-wide budgets instead, an entry count and a total key weight counted in type nodes, both enforced by
+ * second-chance eviction.
+ */
+public final class TypeCache<V> {
+
+    private static final Partition BOOTSTRAP = new Partition();
+
+    private static final Map<LoaderRef, WeakReference<Partition>> LOADER_PARTITIONS = new ConcurrentHashMap<>();
+
+    private static final ReferenceQueue<ClassLoader> UNLOADED = new ReferenceQueue<>();
+
+    private static final ClassValue<Partition> PARTITIONS = new ClassValue<>() {
+        @Override
+        protected Partition computeValue(Class<?> type) {
+            ClassLoader loader = type.getClassLoader();
+            return loader == null ? BOOTSTRAP : loaderPartition(loader);
+        }
+    };
+
+    private static final ConcurrentLinkedQueue<EntryRef> ORDER = new ConcurrentLinkedQueue<>();
+
+    private static final ReferenceQueue<Entry> COLLECTED = new ReferenceQueue<>();
+
+    private static final AtomicInteger SIZE = new AtomicInteger();
+
+    private static final AtomicInteger RELEASED = new AtomicInteger();
+
+    private static final AtomicLong WEIGHT = new AtomicLong();
+
+    private static volatile int maxEntries = Integer.getInteger("org.khovrino.type.cacheMaxEntries", 1 << 16);
+
+    private static volatile long maxWeight = Long.getLong("org.khovrino.type.cacheMaxWeight", 1 << 20);
+
+    public static <V> TypeCache<V> create(String name) {
+        return new TypeCache<>(Objects.requireNonNull(name));
+    }
+
+    public static int maxEntries() {
+        return maxEntries;
+    }
+
+    public static void setMaxEntries(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException(String.format("Negative entry budget %d", maxEntries));
+        }
+        TypeCache.maxEntries = maxEntries;
+        trim();
+    }
+
+    public static long maxWeight() {
+        return maxWeight;
+    }
+
+    public static void setMaxWeight(long maxWeight) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException(String.format("Negative weight budget %d", maxWeight));
+        }
+        TypeCache.maxWeight = maxWeight;
+        trim();
+    }
+
+    public static int totalSize() {
+        expunge();
+        return SIZE.get();
+    }
+
+    public static long totalWeight() {
+        expunge();
+        return WEIGHT.get();
+    }
+
+    public static Stats totalStats(ClassLoader loader) {
+        Partition partition = partition(loader);
+        return partition == null ? Stats.EMPTY : partition.stats(null);
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        private static final Stats EMPTY = new Stats(0, 0, 0, 0);
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1.0 : (double) hits / requests;
+        }
+
+    }
+
+    private final String name;
+
+    private TypeCache(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public V getIfPresent(Type key) {
+        Class<?> anchor = anchor(key);
+        if (anchor == null) {
+            return null;
+        }
+        Table table = PARTITIONS.get(anchor).table(this);
+        Entry entry = table.entries.get(key);
+        if (entry == null) {
+            table.misses.increment();
+            return null;
+        }
+        table.hits.increment();
+        return value(entry);
+    }
+
+    public V get(Type key, Function<? super Type, ? extends V> mappingFunction) {
+        return get(key, anchor(key), mappingFunction);
+    }
+
+    <K> V get(K key, Class<?> anchor, Function<? super K, ? extends V> mappingFunction) {
+        return get(key, anchor, -1, mappingFunction);
+    }
+
+    <K> V get(K key, Class<?> anchor, int weight, Function<? super K, ? extends V> mappingFunction) {
+        if (anchor == null) {
+            return Objects.requireNonNull(mappingFunction.apply(key));
+        }
+        Table table = PARTITIONS.get(anchor).table(this);
+        Entry entry = table.entries.get(key);
+        if (entry != null) {
+            table.hits.increment();
+            return value(entry);
+        }
+        table.misses.increment();
+        V value = Objects.requireNonNull(mappingFunction.apply(key));
+        Entry created = new Entry(table, key, value, weight < 0 ? weight(key) : weight);
+        entry = table.entries.putIfAbsent(key, created);
+        if (entry != null) {
+            return value(entry);
+        }
+        ORDER.add(created.ref);
+        int size = SIZE.incrementAndGet();
+        if (WEIGHT.addAndGet(created.ref.weight) > maxWeight || size > maxEntries) {
+            trim();
+        }
+        return value;
+    }
+
+    public Stats stats(ClassLoader loader) {
+        Partition partition = partition(loader);
+        return partition == null ? Stats.EMPTY : partition.stats(this);
+    }
+
+    public Stats stats() {
+        List<Partition> partitions = new ArrayList<>();
+        partitions.add(BOOTSTRAP);
+        for (WeakReference<Partition> ref : LOADER_PARTITIONS.values()) {
+            Partition partition = ref.get();
+            if (partition != null) {
+                partitions.add(partition);
+            }
+        }
+        long hits = 0, misses = 0, evictions = 0;
+        int size = 0;
+        for (Partition partition : partitions) {
+            Stats stats = partition.stats(this);
+            hits += stats.hits;
+            misses += stats.misses;
+            evictions += stats.evictions;
+            size += stats.size;
+        }
+        return new Stats(hits, misses, evictions, size);
+    }
+
+    @Override
+    public String toString() {
+        return "TypeCache[" + name + "]";
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(Entry entry) {
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        return (V) entry.value;
+    }
+
+    private static Partition partition(ClassLoader loader) {
+        if (loader == null) {
+            return BOOTSTRAP;
+        }
+        WeakReference<Partition> ref = LOADER_PARTITIONS.get(new LoaderRef(loader, null));
+        return ref == null ? null : ref.get();
+    }
+
+    private static Partition loaderPartition(ClassLoader loader) {
+        Reference<? extends ClassLoader> unloaded;
+        while ((unloaded = UNLOADED.poll()) != null) {
+            LOADER_PARTITIONS.remove(unloaded);
+        }
+        LoaderRef key = new LoaderRef(loader, UNLOADED);
+        while (true) {
+            WeakReference<Partition> ref = LOADER_PARTITIONS.get(key);
+            Partition partition = ref == null ? null : ref.get();
+            if (partition != null) {
+                return partition;
+            }
+            partition = new Partition();
+            WeakReference<Partition> created = new WeakReference<>(partition);
+            if (ref == null ? LOADER_PARTITIONS.putIfAbsent(key, created) == null
+                    : LOADER_PARTITIONS.replace(key, ref, created)) {
+                return partition;
+            }
+        }
+    }
+
+    private static void trim() {
+        expunge();
+        int secondChances = SIZE.get();
+        while (SIZE.get() > maxEntries || WEIGHT.get() > maxWeight) {
+            EntryRef ref = ORDER.poll();
+            if (ref == null) {
+                break;
+            }
+            Entry entry = ref.get();
+            if (entry != null && entry.referenced && secondChances-- > 0) {
+                entry.referenced = false;
+                ORDER.add(ref);
+                continue;
+            }
+            if (entry != null && entry.table.entries.remove(entry.key, entry)) {
+                entry.table.evictions.increment();
+            }
+            ref.clear();
+            if (ref.release()) {
+                SIZE.decrementAndGet();
+                WEIGHT.addAndGet(-ref.weight);
+            }
+        }
+    }
+
+    private static void expunge() {
+        Reference<? extends Entry> collected;
+        int released = 0;
+        while ((collected = COLLECTED.poll()) != null) {
+            EntryRef ref = (EntryRef) collected;
+            if (ref.release()) {
+                SIZE.decrementAndGet();
+                WEIGHT.addAndGet(-ref.weight);
+                released++;
+            }
+        }
+        if (released > 0 && RELEASED.addAndGet(released) > SIZE.get()) {
+            RELEASED.set(0);
+            ORDER.removeIf(EntryRef::isReleased);
+        }
+    }
+
+    static Class<?> anchor(Class<?> anchor, Type[] types) {
+        for (Type type : types) {
+            anchor = anchor(anchor, type);
+        }
+        return anchor;
+    }
+
+    static Class<?> anchor(Class<?> anchor, Type type) {
+        return type == null ? anchor : deeper(anchor, anchor(type));
+    }
+
+    static Class<?> anchor(Type type) {
+        return type instanceof Class<?> clazz ? clazz : anchor(TypeTerm.of(type));
+    }
+
+    private static Class<?> anchor(TypeTerm term) {
+        if (term instanceof TypeTerm.ClassRef classRef) {
+            return classRef.type();
+        } else if (term instanceof TypeTerm.Parameterized p) {
+            Class<?> anchor = p.raw();
+            if (p.owner() != null) {
+                anchor = deeper(anchor, anchor(p.owner()));
+            }
+            return anchor(anchor, p.args());
+        } else if (term instanceof TypeTerm.Wildcard w) {
+            return anchor(anchor(Object.class, w.lowerBounds()), w.upperBounds());
+        } else if (term instanceof TypeTerm.Array array) {
+            return anchor(array.component());
+        }
+        GenericDeclaration declaration = ((TypeTerm.Variable) term).variable().getGenericDeclaration();
+        if (declaration instanceof Class<?> clazz) {
+            return clazz;
+        } else if (declaration instanceof Executable executable) {
+            return executable.getDeclaringClass();
+        }
+        return Object.class;
+    }
+
+    private static Class<?> anchor(Class<?> anchor, TypeTerm[] terms) {
+        for (TypeTerm term : terms) {
+            anchor = deeper(anchor, anchor(term));
+        }
+        return anchor;
+    }
+
+    static int weight(Type type) {
+        return type == null ? 0 : weight(TypeTerm.of(type));
+    }
+
+    private static int weight(Object key) {
+        return key instanceof Type type ? weight(type) : 1;
+    }
+
+    private static int weight(TypeTerm term) {
+        if (term instanceof TypeTerm.Parameterized p) {
+            return 1 + (p.owner() == null ? 0 : weight(p.owner())) + weight(p.args());
+        } else if (term instanceof TypeTerm.Wildcard w) {
+            return 1 + weight(w.lowerBounds()) + weight(w.upperBounds());
+        } else if (term instanceof TypeTerm.Array array) {
+            return 1 + weight(array.component());
+        }
+        return 1;
+    }
+
+    private static int weight(TypeTerm[] terms) {
+        int weight = 0;
+        for (TypeTerm term : terms) {
+            weight += weight(term);
+        }
+        return weight;
+    }
+
+    private static Class<?> deeper(Class<?> current, Class<?> candidate) {
+        if (current == null || candidate == null) {
+            return null;
+        }
+        ClassLoader candidateLoader = candidate.getClassLoader();
+        ClassLoader currentLoader = current.getClassLoader();
+        if (candidateLoader == null || candidateLoader == currentLoader) {
+            return current;
+        } else if (currentLoader == null) {
+            return candidate;
+        }
+        for (ClassLoader loader = candidateLoader.getParent(); loader != null; loader = loader.getParent()) {
+            if (loader == currentLoader) {
+                return candidate;
+            }
+        }
+        for (ClassLoader loader = currentLoader.getParent(); loader != null; loader = loader.getParent()) {
+            if (loader == candidateLoader) {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    private static final class Partition {
+
+        private final Map<TypeCache<?>, Table> tables = new ConcurrentHashMap<>();
+
+        Table table(TypeCache<?> cache) {
+            Table table = tables.get(cache);
+            if (table == null) {
+                table = tables.computeIfAbsent(cache, c -> new Table());
+            }
+            return table;
+        }
+
+        Stats stats(TypeCache<?> cache) {
+            long hits = 0, misses = 0, evictions = 0;
+            int size = 0;
+            for (Map.Entry<TypeCache<?>, Table> entry : tables.entrySet()) {
+                if (cache == null || entry.getKey() == cache) {
+                    Table table = entry.getValue();
+                    hits += table.hits.sum();
+                    misses += table.misses.sum();
+                    evictions += table.evictions.sum();
+                    size += table.entries.size();
+                }
+            }
+            return new Stats(hits, misses, evictions, size);
+        }
+
+    }
+
+    private static final class LoaderRef extends WeakReference<ClassLoader> {
+
+        private final int hash;
+
+        private LoaderRef(ClassLoader loader, ReferenceQueue<ClassLoader> queue) {
+            super(loader, queue);
+            this.hash = System.identityHashCode(loader);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            ClassLoader loader = get();
+            return loader != null && obj instanceof LoaderRef that && that.get() == loader;
+        }
+
+    }
+
+    private static final class Table {
+
+        private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+    }
+
+    private static final class Entry {
+
+        private final Table table;
+        private final Object key;
+        private final Object value;
+        private final EntryRef ref;
+        private volatile boolean referenced;
+
+        private Entry(Table table, Object key, Object value, int weight) {
+            this.table = table;
+            this.key = key;
+            this.value = value;
+            this.ref = new EntryRef(this, weight);
+        }
+
+    }
+
+    private static final class EntryRef extends WeakReference<Entry> {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final int weight;
+
+        private EntryRef(Entry entry, int weight) {
+            super(entry, COLLECTED);
+            this.weight = weight;
+        }
+
+        boolean release() {
+            return released.compareAndSet(false, true);
+        }
+
+        boolean isReleased() {
+            return released.get();
+        }
+
+    }
+
+}
@@ -0,0 +1,192 @@
+package org.khovrino.type;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+public final class TypeContainer {
+
+    private static final State EMPTY = new State(new TypeToken<?>[0], new Object[0]);
+
+    public static TypeContainer create() {
+        return new TypeContainer();
+    }
+
+    private final AtomicReference<State> state = new AtomicReference<>(EMPTY);
+
+    private TypeContainer() {
+    }
+
+    public <T> T get(TypeToken<T> token) {
+        return state.get().get(token.canonical());
+    }
+
+    public <T> T getOrDefault(TypeToken<T> token, T defaultValue) {
+        T value = get(token);
+        return value == null ? defaultValue : value;
+    }
+
+    public <T> T get(Class<T> type) {
+        return get(TypeToken.of(type));
+    }
+
+    public boolean contains(TypeToken<?> token) {
+        return get(token) != null;
+    }
+
+    public <T> T put(TypeToken<T> token, T value) {
+        check(token, value);
+        while (true) {
+            State current = state.get();
+            T previous = current.get(token.canonical());
+            if (state.compareAndSet(current, current.with(token.canonical(), value))) {
+                return previous;
+            }
+        }
+    }
+
+    public <T> T putIfAbsent(TypeToken<T> token, T value) {
+        check(token, value);
+        while (true) {
+            State current = state.get();
+            T previous = current.get(token.canonical());
+            if (previous != null || state.compareAndSet(current, current.with(token.canonical(), value))) {
+                return previous;
+            }
+        }
+    }
+
+    public <T> T computeIfAbsent(TypeToken<T> token, Function<? super TypeToken<T>, ? extends T> mappingFunction) {
+        T value = get(token);
+        if (value != null) {
+            return value;
+        }
+        T created = mappingFunction.apply(token);
+        T previous = putIfAbsent(token, created);
+        return previous == null ? created : previous;
+    }
+
+    public <T> T remove(TypeToken<T> token) {
+        while (true) {
+            State current = state.get();
+            T previous = current.get(token.canonical());
+            if (previous == null || state.compareAndSet(current, current.with(token.canonical(), null))) {
+                return previous;
+            }
+        }
+    }
+
+    public int size() {
+        return state.get().keys.length;
+    }
+
+    public Set<TypeToken<?>> keys() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(state.get().keys)));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("TypeContainer{");
+        State current = state.get();
+        String separator = "";
+        for (int i = 0; i < current.keys.length; i++) {
+            result.append(separator).append(current.keys[i]).append('=').append(current.values[i]);
+            separator = ", ";
+        }
+        return result.append('}').toString();
+    }
+
+    private static void check(TypeToken<?> token, Object value) {
+        Objects.requireNonNull(value);
+        Class<?> raw = JavaType.rawType(token.javaType());
+        if (!raw.isPrimitive() && !raw.isInstance(value)) {
+            throw new IllegalArgumentException(
+                    String.format("%s is not an instance of %s", value.getClass().getName(), token.name()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+
+    private static final class State {
+
+        private final TypeToken<?>[] keys;
+        private final Object[] values;
+        private final int[] index;
+
+        private State(TypeToken<?>[] keys, Object[] values) {
+            this.keys = keys;
+            this.values = values;
+            this.index = new int[Integer.highestOneBit(Math.max(keys.length * 2, 1)) << 1];
+            int mask = index.length - 1;
+            for (int i = 0; i < keys.length; i++) {
+                int j = bucket(keys[i], mask);
+                while (index[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                index[j] = i + 1;
+            }
+        }
+
+        private State(TypeToken<?>[] keys, Object[] values, int[] index) {
+            this.keys = keys;
+            this.values = values;
+            this.index = index;
+        }
+
+        <T> T get(TypeToken<?> key) {
+            int position = find(key);
+            return position < 0 ? null : cast(values[position]);
+        }
+
+        State with(TypeToken<?> key, Object value) {
+            int position = find(key);
+            int size = keys.length;
+            if (position < 0) {
+                if (value == null) {
+                    return this;
+                }
+                TypeToken<?>[] keys = Arrays.copyOf(this.keys, size + 1);
+                Object[] values = Arrays.copyOf(this.values, size + 1);
+                keys[size] = key;
+                values[size] = value;
+                return new State(keys, values);
+            } else if (value == null) {
+                TypeToken<?>[] keys = new TypeToken<?>[size - 1];
+                Object[] values = new Object[size - 1];
+                System.arraycopy(this.keys, 0, keys, 0, position);
+                System.arraycopy(this.keys, position + 1, keys, position, size - position - 1);
+                System.arraycopy(this.values, 0, values, 0, position);
+                System.arraycopy(this.values, position + 1, values, position, size - position - 1);
+                return new State(keys, values);
+            }
+            Object[] values = this.values.clone();
+            values[position] = value;
+            return new State(keys, values, index);
+        }
+
+        private int find(TypeToken<?> key) {
+            int[] index = this.index;
+            int mask = index.length - 1;
+            for (int j = bucket(key, mask);; j = (j + 1) & mask) {
+                int position = index[j] - 1;
+                if (position < 0 || keys[position] == key) {
+                    return position;
+                }
+            }
+        }
+
+        private static int bucket(TypeToken<?> key, int mask) {
+            int hash = key.hashCode();
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+
+    }
+
+}
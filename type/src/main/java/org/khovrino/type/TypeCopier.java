@@ -0,0 +1,542 @@
+package org.khovrino.type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+public final class TypeCopier<T> {
+
+    private static final Set<Class<?>> IMMUTABLE = Set.of(Boolean.class, Character.class, Byte.class, Short.class,
+            Integer.class, Long.class, Float.class, Double.class, Void.class, String.class, BigInteger.class,
+            BigDecimal.class, UUID.class, Class.class, Pattern.class);
+
+    private static final ClassValue<Boolean> LEAF = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type.isPrimitive() || type.isEnum() || IMMUTABLE.contains(type)
+                    || (type.getSuperclass() != null && type.getSuperclass().isEnum())
+                    || (type.getName().startsWith("java.time.") && Modifier.isFinal(type.getModifiers()));
+        }
+    };
+
+    private static final ClassValue<Unmodifiable> UNMODIFIABLE = new ClassValue<>() {
+        @Override
+        protected Unmodifiable computeValue(Class<?> type) {
+            String name = type.getName();
+            if (name.startsWith("java.util.ImmutableCollections$") || name.startsWith("java.util.Collections$Empty")
+                    || name.startsWith("java.util.Collections$Singleton")) {
+                return Unmodifiable.VALUE;
+            } else if (name.startsWith("java.util.Collections$Unmodifiable")) {
+                return Unmodifiable.VIEW;
+            }
+            return Unmodifiable.NONE;
+        }
+    };
+
+    private static final ClassValue<Optional<MethodHandle>> CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            try {
+                return Optional.of(MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(Object.class)));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                return Optional.empty();
+            }
+        }
+    };
+
+    private static final TypeCache<Plan> PLANS = TypeCache.create("copier.plans");
+
+    private static final TypeCache<Plan> EXACT_PLANS = TypeCache.create("copier.exactPlans");
+
+    private static final TypeCache<TypeCopier<?>> CACHE = TypeCache.create("copiers");
+
+    public static <T> TypeCopier<T> of(Class<T> type) {
+        return of(TypeToken.of(type));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> TypeCopier<T> of(TypeToken<T> token) {
+        return (TypeCopier<T>) CACHE.get(token.javaType(), TypeCopier::create);
+    }
+
+    private static TypeCopier<?> create(Type type) {
+        return new TypeCopier<>(TypeToken.of(type));
+    }
+
+    private final TypeToken<T> type;
+    private final Plan plan;
+
+    private TypeCopier(TypeToken<T> type) {
+        this.type = type;
+        this.plan = plan(type.javaType());
+        if (plan instanceof DynamicPlan dynamic) {
+            dynamic.prepare();
+        }
+    }
+
+    public TypeToken<T> type() {
+        return type;
+    }
+
+    public boolean isShared() {
+        return plan == SHARED;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T copy(T value) {
+        if (value == null || plan == SHARED) {
+            return value;
+        }
+        return (T) plan.copy(value, new IdentityHashMap<>());
+    }
+
+    @Override
+    public String toString() {
+        return "TypeCopier[" + type.simpleName() + "]";
+    }
+
+    private static Plan plan(Type type) {
+        if (type instanceof WildcardType wildcard) {
+            return plan(wildcard.getUpperBounds()[0]);
+        } else if (type instanceof TypeVariable<?>) {
+            return DYNAMIC;
+        }
+        Class<?> raw = JavaType.rawType(type);
+        if (LEAF.get(raw)) {
+            return SHARED;
+        } else if (raw == Object.class) {
+            return DYNAMIC;
+        }
+        return PLANS.get(type, key -> {
+            if (raw.isArray() || Collection.class.isAssignableFrom(raw) || Map.class.isAssignableFrom(raw)
+                    || Modifier.isFinal(raw.getModifiers())) {
+                return exact(key);
+            } else {
+                return new DynamicPlan(key, raw);
+            }
+        });
+    }
+
+    private static Plan exact(Type type) {
+        Class<?> raw = JavaType.rawType(type);
+        if (LEAF.get(raw)) {
+            return SHARED;
+        }
+        return EXACT_PLANS.get(type, key -> {
+            if (raw.isArray()) {
+                Class<?> component = raw.getComponentType();
+                return component.isPrimitive() ? PRIMITIVE_ARRAY : new ArrayPlan(JavaType.componentType(key));
+            } else if (Collection.class.isAssignableFrom(raw)) {
+                return new CollectionPlan(argument(key, Collection.class, 0), raw);
+            } else if (Map.class.isAssignableFrom(raw)) {
+                return new MapPlan(argument(key, Map.class, 0), argument(key, Map.class, 1), raw);
+            } else {
+                return new ObjectPlan(key);
+            }
+        });
+    }
+
+    private static Type argument(Type type, Class<?> superClass, int index) {
+        Type supertype = JavaType.downgrade(type, superClass);
+        if (supertype instanceof ParameterizedType parameterized) {
+            return parameterized.getActualTypeArguments()[index];
+        }
+        return Object.class;
+    }
+
+    private static Object instantiate(Class<?> type) {
+        MethodHandle constructor = CONSTRUCTORS.get(type).orElse(null);
+        if (constructor == null) {
+            return null;
+        }
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private enum Unmodifiable {
+        NONE, VALUE, VIEW
+    }
+
+    private interface Plan {
+
+        Object copy(Object value, Map<Object, Object> copies);
+
+    }
+
+    private static final Plan SHARED = (value, copies) -> value;
+
+    private static final Plan DYNAMIC = new DynamicPlan(Object.class, Object.class);
+
+    private static final Plan PRIMITIVE_ARRAY = (value, copies) -> {
+        Object copy = copies.get(value);
+        if (copy == null) {
+            int length = Array.getLength(value);
+            copy = Array.newInstance(value.getClass().getComponentType(), length);
+            System.arraycopy(value, 0, copy, 0, length);
+            copies.put(value, copy);
+        }
+        return copy;
+    };
+
+    private static final class DynamicPlan implements Plan {
+
+        private final Type type;
+        private final Class<?> raw;
+        private final ClassValue<Plan> plans = new ClassValue<>() {
+            @Override
+            protected Plan computeValue(Class<?> runtimeClass) {
+                return exact(runtimeClass == raw ? type : refine(runtimeClass));
+            }
+        };
+
+        private DynamicPlan(Type type, Class<?> raw) {
+            this.type = type;
+            this.raw = raw;
+        }
+
+        void prepare() {
+            if (!raw.isInterface() && !Modifier.isAbstract(raw.getModifiers())) {
+                plans.get(raw);
+            }
+        }
+
+        @Override
+        public Object copy(Object value, Map<Object, Object> copies) {
+            Class<?> runtimeClass = value.getClass();
+            if (LEAF.get(runtimeClass)) {
+                return value;
+            }
+            return plans.get(runtimeClass).copy(value, copies);
+        }
+
+        private Type refine(Class<?> runtimeClass) {
+            Type mask = JavaType.unresolved(runtimeClass);
+            if (raw == Object.class || runtimeClass.isArray()) {
+                return mask;
+            }
+            return JavaType.replace(mask, JavaType.solveExtends(mask, type));
+        }
+
+    }
+
+    private static final class ArrayPlan implements Plan {
+
+        private final Type componentType;
+        private volatile Plan component;
+
+        private ArrayPlan(Type componentType) {
+            this.componentType = componentType;
+        }
+
+        @Override
+        public Object copy(Object value, Map<Object, Object> copies) {
+            Object copy = copies.get(value);
+            if (copy != null) {
+                return copy;
+            }
+            Plan component = this.component;
+            if (component == null) {
+                component = plan(componentType);
+                this.component = component;
+            }
+            Object[] src = (Object[]) value;
+            Object[] dst = (Object[]) Array.newInstance(value.getClass().getComponentType(), src.length);
+            copies.put(value, dst);
+            if (component == SHARED) {
+                System.arraycopy(src, 0, dst, 0, src.length);
+            } else {
+                for (int i = 0; i < src.length; i++) {
+                    Object element = src[i];
+                    dst[i] = element == null ? null : component.copy(element, copies);
+                }
+            }
+            return dst;
+        }
+
+    }
+
+    private static final class CollectionPlan implements Plan {
+
+        private final Type elementType;
+        private final Class<?> raw;
+        private volatile Plan element;
+
+        private CollectionPlan(Type elementType, Class<?> raw) {
+            this.elementType = elementType;
+            this.raw = raw;
+        }
+
+        @Override
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public Object copy(Object value, Map<Object, Object> copies) {
+            Object existing = copies.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            Plan element = this.element;
+            if (element == null) {
+                element = plan(elementType);
+                this.element = element;
+            }
+            Collection<Object> src = (Collection<Object>) value;
+            Unmodifiable unmodifiable = UNMODIFIABLE.get(src.getClass());
+            if (unmodifiable == Unmodifiable.VALUE && (element == SHARED || src.isEmpty())) {
+                copies.put(value, value);
+                return value;
+            } else if (unmodifiable != Unmodifiable.NONE) {
+                return copyUnmodifiable(src, element, copies);
+            }
+            Collection<Object> dst;
+            if (src instanceof EnumSet<?> enumSet) {
+                dst = (Collection) enumSet.clone();
+                copies.put(value, dst);
+                return dst;
+            } else if (src instanceof SortedSet<?> sortedSet && sortedSet.comparator() != null) {
+                dst = new TreeSet<>((Comparator<Object>) sortedSet.comparator());
+            } else if (src.getClass() == ArrayList.class) {
+                dst = new ArrayList<>(src.size());
+            } else {
+                dst = (Collection<Object>) instantiate(src.getClass());
+                if (dst == null) {
+                    dst = fallback(src);
+                }
+            }
+            copies.put(value, dst);
+            for (Object item : src) {
+                dst.add(item == null || element == SHARED ? item : element.copy(item, copies));
+            }
+            return dst;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Collection<Object> copyUnmodifiable(Collection<Object> src, Plan element,
+                Map<Object, Object> copies) {
+            Collection<Object> contents;
+            Collection<Object> dst;
+            if (src instanceof NavigableSet<?> navigableSet) {
+                NavigableSet<Object> set = new TreeSet<>((Comparator<Object>) navigableSet.comparator());
+                contents = set;
+                dst = Collections.unmodifiableNavigableSet(set);
+            } else if (src instanceof SortedSet<?> sortedSet) {
+                SortedSet<Object> set = new TreeSet<>((Comparator<Object>) sortedSet.comparator());
+                contents = set;
+                dst = Collections.unmodifiableSortedSet(set);
+            } else if (src instanceof Set<?>) {
+                Set<Object> set = new LinkedHashSet<>(Math.max(16, (int) (src.size() / .75f) + 1));
+                contents = set;
+                dst = Collections.unmodifiableSet(set);
+            } else if (src instanceof List<?>) {
+                List<Object> list = new ArrayList<>(src.size());
+                contents = list;
+                dst = Collections.unmodifiableList(list);
+            } else {
+                contents = new ArrayList<>(src.size());
+                dst = Collections.unmodifiableCollection(contents);
+            }
+            copies.put(src, dst);
+            for (Object item : src) {
+                contents.add(item == null || element == SHARED ? item : element.copy(item, copies));
+            }
+            return dst;
+        }
+
+        private Collection<Object> fallback(Collection<Object> src) {
+            if (src instanceof SortedSet<?>) {
+                return new TreeSet<>();
+            } else if (src instanceof Set<?>) {
+                return new LinkedHashSet<>(Math.max(16, (int) (src.size() / .75f) + 1));
+            } else if (src instanceof Queue<?> && !(src instanceof List<?>)) {
+                return new ArrayDeque<>(src.size());
+            } else if (src instanceof List<?> || raw.isAssignableFrom(ArrayList.class)) {
+                return new ArrayList<>(src.size());
+            }
+            throw new IllegalArgumentException(String.format("Can't instantiate %s", src.getClass().getName()));
+        }
+
+    }
+
+    private static final class MapPlan implements Plan {
+
+        private final Type keyType;
+        private final Type valueType;
+        private final Class<?> raw;
+        private volatile Plan key;
+        private volatile Plan value;
+
+        private MapPlan(Type keyType, Type valueType, Class<?> raw) {
+            this.keyType = keyType;
+            this.valueType = valueType;
+            this.raw = raw;
+        }
+
+        @Override
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public Object copy(Object object, Map<Object, Object> copies) {
+            Object existing = copies.get(object);
+            if (existing != null) {
+                return existing;
+            }
+            Plan key = this.key;
+            Plan value = this.value;
+            if (key == null || value == null) {
+                key = plan(keyType);
+                value = plan(valueType);
+                this.key = key;
+                this.value = value;
+            }
+            Map<Object, Object> src = (Map<Object, Object>) object;
+            Unmodifiable unmodifiable = UNMODIFIABLE.get(src.getClass());
+            if (unmodifiable == Unmodifiable.VALUE && ((key == SHARED && value == SHARED) || src.isEmpty())) {
+                copies.put(object, object);
+                return object;
+            }
+            Map<Object, Object> contents = null;
+            Map<Object, Object> dst;
+            if (unmodifiable != Unmodifiable.NONE) {
+                if (src instanceof NavigableMap<?, ?> navigableMap) {
+                    NavigableMap<Object, Object> map = new TreeMap<>((Comparator<Object>) navigableMap.comparator());
+                    contents = map;
+                    dst = Collections.unmodifiableNavigableMap(map);
+                } else if (src instanceof SortedMap<?, ?> sortedMap) {
+                    SortedMap<Object, Object> map = new TreeMap<>((Comparator<Object>) sortedMap.comparator());
+                    contents = map;
+                    dst = Collections.unmodifiableSortedMap(map);
+                } else {
+                    contents = new LinkedHashMap<>(Math.max(16, (int) (src.size() / .75f) + 1));
+                    dst = Collections.unmodifiableMap(contents);
+                }
+            } else if (src instanceof EnumMap<?, ?> enumMap) {
+                dst = (Map) enumMap.clone();
+            } else if (src instanceof SortedMap<?, ?> sortedMap && sortedMap.comparator() != null) {
+                dst = new TreeMap<>((Comparator<Object>) sortedMap.comparator());
+            } else {
+                dst = (Map<Object, Object>) instantiate(src.getClass());
+                if (dst == null) {
+                    if (src instanceof SortedMap<?, ?>) {
+                        dst = new TreeMap<>();
+                    } else if (raw.isAssignableFrom(LinkedHashMap.class)) {
+                        dst = new LinkedHashMap<>(Math.max(16, (int) (src.size() / .75f) + 1));
+                    } else {
+                        throw new IllegalArgumentException(
+                                String.format("Can't instantiate %s", src.getClass().getName()));
+                    }
+                }
+            }
+            copies.put(object, dst);
+            if (contents == null) {
+                contents = dst;
+            }
+            for (Map.Entry<Object, Object> entry : src.entrySet()) {
+                Object k = entry.getKey();
+                Object v = entry.getValue();
+                contents.put(k == null || key == SHARED ? k : key.copy(k, copies),
+                        v == null || value == SHARED ? v : value.copy(v, copies));
+            }
+            return dst;
+        }
+
+    }
+
+    private static final class ObjectPlan implements Plan {
+
+        private static final Object CONSTRUCTING = new Object();
+
+        private final TypeLayout<?> layout;
+        private final boolean constructed;
+        private volatile Plan[] slots;
+
+        private ObjectPlan(Type type) {
+            this.layout = TypeLayout.of(TypeToken.of(type));
+            this.constructed = layout.isConstructed();
+            if (!constructed && !layout.isMutable()) {
+                throw new IllegalArgumentException(
+                        String.format("Can't copy %s: it has final fields and no constructor taking all of them",
+                                layout.type().name()));
+            } else if (!constructed && !layout.isInstantiable()) {
+                throw new IllegalArgumentException(
+                        String.format("Can't copy %s: it has no default constructor", layout.type().name()));
+            }
+        }
+
+        @Override
+        public Object copy(Object value, Map<Object, Object> copies) {
+            Object existing = copies.get(value);
+            if (existing == CONSTRUCTING) {
+                throw new IllegalArgumentException(
+                        String.format("Can't copy cyclic %s: it can only be built through a constructor",
+                                layout.type().name()));
+            } else if (existing != null) {
+                return existing;
+            }
+            Plan[] slots = this.slots;
+            if (slots == null) {
+                slots = new Plan[layout.size()];
+                for (int i = 0; i < slots.length; i++) {
+                    TypeLayout.Slot slot = layout.slot(i);
+                    slots[i] = slot.isPrimitive() ? SHARED : plan(slot.type());
+                }
+                this.slots = slots;
+            }
+            if (constructed) {
+                copies.put(value, CONSTRUCTING);
+                Object[] values = new Object[slots.length];
+                for (int i = 0; i < slots.length; i++) {
+                    values[i] = copySlot(slots[i], layout.slot(i).get(value), copies);
+                }
+                Object copy = layout.newInstance(values);
+                copies.put(value, copy);
+                return copy;
+            }
+            Object copy = layout.newInstance();
+            copies.put(value, copy);
+            for (int i = 0; i < slots.length; i++) {
+                TypeLayout.Slot slot = layout.slot(i);
+                slot.set(copy, copySlot(slots[i], slot.get(value), copies));
+            }
+            return copy;
+        }
+
+        private static Object copySlot(Plan plan, Object value, Map<Object, Object> copies) {
+            return value == null || plan == SHARED ? value : plan.copy(value, copies);
+        }
+
+    }
+
+}
@@ -0,0 +1,186 @@
+package org.khovrino.type;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+public final class TypeGraph {
+
+    private static final ClassValue<Type[]> FIELD_TYPES = new ClassValue<>() {
+        @Override
+        protected Type[] computeValue(Class<?> type) {
+            ClassHierarchy hierarchy = ClassHierarchy.of(type);
+            List<Type> types = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                TypeRewriter rewriter = TypeRewriter
+                        .substitution(JavaType.templateArguments(hierarchy.erasedSupertypeTemplate(c)));
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!field.isSynthetic() && !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                        Type fieldType = rewriter.rewrite(field.getGenericType());
+                        if (!types.contains(fieldType)) {
+                            types.add(fieldType);
+                        }
+                    }
+                }
+            }
+            return types.toArray(new Type[0]);
+        }
+    };
+
+    public static Set<Type> reachable(TypeToken<?> root) {
+        return reachable(root.javaType());
+    }
+
+    public static Set<Type> reachable(Type root) {
+        Set<Type> result = ConcurrentHashMap.newKeySet();
+        crawl(root, ForkJoinPool.commonPool(), result::add);
+        return Collections.unmodifiableSet(result);
+    }
+
+    public static void crawl(TypeToken<?> root, Consumer<? super Type> consumer) {
+        crawl(root.javaType(), ForkJoinPool.commonPool(), consumer);
+    }
+
+    public static void crawl(Type root, ForkJoinPool pool, Consumer<? super Type> consumer) {
+        Objects.requireNonNull(root);
+        Objects.requireNonNull(pool);
+        Objects.requireNonNull(consumer);
+        if (root instanceof WildcardType || root instanceof TypeVariable) {
+            throw new IllegalArgumentException(String.format("Not a concrete type: %s", root.getTypeName()));
+        }
+        TypeGraph graph = new TypeGraph(consumer);
+        if (graph.visited.add(JavaType.requireNonRawClass(root))) {
+            pool.invoke(graph.new Visit(root));
+        }
+    }
+
+    private final Set<Type> visited = ConcurrentHashMap.newKeySet();
+    private final Consumer<? super Type> consumer;
+
+    private TypeGraph(Consumer<? super Type> consumer) {
+        this.consumer = consumer;
+    }
+
+    private static void edges(Type type, List<Type> out) {
+        if (JavaType.isPrimitive(type)) {
+            return;
+        } else if (JavaType.isArray(type)) {
+            add(out, JavaType.componentType(type));
+            return;
+        }
+        Class<?> raw = type instanceof Class<?> clazz ? clazz : JavaType.rawType(type);
+        boolean rawClass = type instanceof Class && ClassHierarchy.of(raw).isRaw();
+        if (Map.class.isAssignableFrom(raw)) {
+            if (!rawClass) {
+                addArguments(out, JavaType.downgrade(type, Map.class));
+            }
+        } else if (Iterable.class.isAssignableFrom(raw)) {
+            if (!rawClass) {
+                addArguments(out, JavaType.downgrade(type, Iterable.class));
+            }
+        } else if (raw == Optional.class) {
+            addArguments(out, type);
+        } else if (!raw.isEnum() && !raw.isInterface() && raw.getClassLoader() != null) {
+            Type[] fieldTypes = FIELD_TYPES.get(raw);
+            if (fieldTypes.length > 0 && type instanceof ParameterizedType) {
+                fieldTypes = TypeRewriter.substitution(JavaType.typeArguments(type)).rewrite(fieldTypes);
+            }
+            for (Type fieldType : fieldTypes) {
+                add(out, fieldType);
+            }
+        }
+    }
+
+    private static void addArguments(List<Type> out, Type type) {
+        if (type instanceof ParameterizedType paramType) {
+            for (Type arg : paramType.getActualTypeArguments()) {
+                add(out, arg);
+            }
+        }
+    }
+
+    private static void add(List<Type> out, Type type) {
+        if (type instanceof WildcardType wildcardType) {
+            for (Type bound : wildcardType.getLowerBounds()) {
+                add(out, bound);
+            }
+            for (Type bound : wildcardType.getUpperBounds()) {
+                if (bound != Object.class) {
+                    add(out, bound);
+                }
+            }
+        } else if (concrete(type)) {
+            out.add(type);
+        }
+    }
+
+    private static boolean concrete(Type type) {
+        if (type instanceof TypeVariable) {
+            return false;
+        } else if (type instanceof GenericArrayType arrayType) {
+            return concrete(arrayType.getGenericComponentType());
+        } else if (type instanceof WildcardType wildcardType) {
+            return concrete(wildcardType.getLowerBounds()) && concrete(wildcardType.getUpperBounds());
+        } else if (type instanceof ParameterizedType paramType) {
+            return (paramType.getOwnerType() == null || concrete(paramType.getOwnerType()))
+                    && concrete(paramType.getActualTypeArguments());
+        }
+        return true;
+    }
+
+    private static boolean concrete(Type[] types) {
+        for (Type type : types) {
+            if (!concrete(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final class Visit extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Type type;
+
+        private Visit(Type type) {
+            this.type = type;
+        }
+
+        @Override
+        protected void compute() {
+            consumer.accept(type);
+            List<Type> edges = new ArrayList<>();
+            TypeGraph.edges(type, edges);
+            List<Visit> children = new ArrayList<>(edges.size());
+            for (Type edge : edges) {
+                if (visited.add(edge)) {
+                    children.add(new Visit(edge));
+                }
+            }
+            if (children.size() == 1) {
+                children.get(0).compute();
+            } else if (!children.isEmpty()) {
+                invokeAll(children);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,270 @@
+package org.khovrino.type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public final class TypeLayout<T> {
+
+    private static final TypeCache<TypeLayout<?>> CACHE = TypeCache.create("layouts");
+
+    @SuppressWarnings("unchecked")
+    public static <T> TypeLayout<T> of(TypeToken<T> token) {
+        return (TypeLayout<T>) CACHE.get(token.javaType(), TypeLayout::create);
+    }
+
+    private static TypeLayout<?> create(Type type) {
+        return new TypeLayout<>(TypeToken.of(type));
+    }
+
+    public static final class Slot {
+
+        private final Field field;
+        private final Type type;
+        private final VarHandle handle;
+
+        private Slot(Field field, Type type, VarHandle handle) {
+            this.field = field;
+            this.type = type;
+            this.handle = handle;
+        }
+
+        public String name() {
+            return field.getName();
+        }
+
+        public Field field() {
+            return field;
+        }
+
+        public Type type() {
+            return type;
+        }
+
+        public VarHandle handle() {
+            return handle;
+        }
+
+        public boolean isPrimitive() {
+            return field.getType().isPrimitive();
+        }
+
+        public boolean isFinal() {
+            return Modifier.isFinal(field.getModifiers());
+        }
+
+        public Object get(Object owner) {
+            return handle.get(owner);
+        }
+
+        public void set(Object owner, Object value) {
+            if (isFinal()) {
+                throw new IllegalStateException(String.format("Field %s of %s is final", name(),
+                        field.getDeclaringClass().getName()));
+            }
+            handle.set(owner, value);
+        }
+
+        @Override
+        public String toString() {
+            return name() + ": " + JavaType.simpleName(type);
+        }
+
+    }
+
+    private final TypeToken<T> type;
+    private final Slot[] slots;
+    private final List<Slot> slotList;
+    private final boolean record;
+    private final MethodHandle instantiator;
+    private final MethodHandle allArgsInstantiator;
+
+    private TypeLayout(TypeToken<T> type) {
+        this.type = type;
+        Class<?> raw = JavaType.rawType(type.javaType());
+        if (raw.isArray() || raw.isPrimitive() || raw.isInterface() || Modifier.isAbstract(raw.getModifiers())) {
+            throw new IllegalArgumentException(String.format("No layout for %s", type.name()));
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(raw, MethodHandles.lookup());
+            List<Slot> slots = new ArrayList<>();
+            this.record = raw.isRecord();
+            if (record) {
+                RecordComponent[] components = raw.getRecordComponents();
+                Class<?>[] componentTypes = new Class<?>[components.length];
+                TypeMembers members = TypeMembers.of(type.javaType());
+                for (int i = 0; i < components.length; i++) {
+                    componentTypes[i] = components[i].getType();
+                    TypeMembers.ResolvedField field = members.field(components[i].getName());
+                    slots.add(new Slot(field.field(), field.type(), lookup.unreflectVarHandle(field.field())));
+                }
+                MethodHandle constructor = lookup.findConstructor(raw,
+                        MethodType.methodType(void.class, componentTypes));
+                this.instantiator = null;
+                this.allArgsInstantiator = constructor.asType(constructor.type().generic())
+                        .asSpreader(Object[].class, components.length);
+            } else {
+                for (TypeMembers.ResolvedField field : TypeMembers.of(type.javaType()).fields()) {
+                    if (!Modifier.isStatic(field.field().getModifiers())) {
+                        slots.add(new Slot(field.field(), field.type(),
+                                MethodHandles.privateLookupIn(field.field().getDeclaringClass(), MethodHandles.lookup())
+                                        .unreflectVarHandle(field.field())));
+                    }
+                }
+                slots.sort(Comparator.comparingInt(slot -> depth(slot.field().getDeclaringClass())));
+                MethodHandle constructor;
+                try {
+                    constructor = lookup.findConstructor(raw, MethodType.methodType(void.class));
+                    constructor = constructor.asType(MethodType.methodType(Object.class));
+                } catch (NoSuchMethodException e) {
+                    constructor = null;
+                }
+                boolean mutable = true;
+                for (Slot slot : slots) {
+                    mutable &= !slot.isFinal();
+                }
+                this.instantiator = constructor;
+                this.allArgsInstantiator = mutable && constructor != null ? null
+                        : allArgsConstructor(lookup, raw, slots);
+            }
+            this.slots = slots.toArray(new Slot[0]);
+            this.slotList = List.of(this.slots);
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    public TypeToken<T> type() {
+        return type;
+    }
+
+    public boolean isRecord() {
+        return record;
+    }
+
+    public boolean isMutable() {
+        for (Slot slot : slots) {
+            if (slot.isFinal()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return slots.length;
+    }
+
+    boolean isConstructed() {
+        return allArgsInstantiator != null;
+    }
+
+    boolean isInstantiable() {
+        return instantiator != null;
+    }
+
+    public Slot slot(int index) {
+        return slots[index];
+    }
+
+    public Slot slot(String name) {
+        for (Slot slot : slots) {
+            if (slot.name().equals(name)) {
+                return slot;
+            }
+        }
+        throw new IllegalArgumentException(String.format("No field %s in %s", name, type.name()));
+    }
+
+    public List<Slot> slots() {
+        return slotList;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T newInstance() {
+        if (record) {
+            return newInstance(new Object[0]);
+        } else if (instantiator == null) {
+            throw new IllegalStateException(String.format("No default constructor in %s", type.name()));
+        }
+        try {
+            return (T) (Object) instantiator.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T newInstance(Object... values) {
+        if (values.length != slots.length) {
+            throw new IllegalArgumentException(
+                    String.format("%s has %d fields, got %d values", type.name(), slots.length, values.length));
+        }
+        if (allArgsInstantiator == null) {
+            if (!isMutable()) {
+                throw new IllegalStateException(
+                        String.format("%s has final fields and no constructor taking all of them", type.name()));
+            }
+            T instance = newInstance();
+            for (int i = 0; i < slots.length; i++) {
+                slots[i].handle.set(instance, values[i]);
+            }
+            return instance;
+        }
+        try {
+            return (T) (Object) allArgsInstantiator.invokeExact(values);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return type.simpleName() + slotList;
+    }
+
+    private static MethodHandle allArgsConstructor(MethodHandles.Lookup lookup, Class<?> raw, List<Slot> slots)
+            throws IllegalAccessException {
+        Class<?>[] fieldTypes = new Class<?>[slots.size()];
+        for (int i = 0; i < fieldTypes.length; i++) {
+            fieldTypes[i] = slots.get(i).field().getType();
+        }
+        Constructor<?> constructor;
+        try {
+            constructor = raw.getDeclaredConstructor(fieldTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        Parameter[] parameters = constructor.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (!parameters[i].isNamePresent() || !parameters[i].getName().equals(slots.get(i).name())) {
+                return null;
+            }
+        }
+        MethodHandle handle = lookup.unreflectConstructor(constructor);
+        return handle.asType(handle.type().generic()).asSpreader(Object[].class, fieldTypes.length);
+    }
+
+    private static int depth(Class<?> clazz) {
+        int depth = 0;
+        while ((clazz = clazz.getSuperclass()) != null) {
+            depth++;
+        }
+        return depth;
+    }
+
+}
@@ -0,0 +1,223 @@
+package org.khovrino.type;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+public final class TypeMembers {
+
+    private static final ClassValue<Template> TEMPLATES = new ClassValue<>() {
+        @Override
+        protected Template computeValue(Class<?> type) {
+            return new Template(type);
+        }
+    };
+
+    public static TypeMembers of(Type type) {
+        Objects.requireNonNull(type);
+        if (!(type instanceof Class || type instanceof ParameterizedType) || JavaType.isArray(type)
+                || JavaType.isPrimitive(type)) {
+            throw new IllegalArgumentException(String.format("Not a class type: %s", type.getTypeName()));
+        }
+        Map<TypeVariable<?>, Type> args = JavaType.typeArguments(type);
+        return new TypeMembers(type, TEMPLATES.get(JavaType.rawType(type)), args);
+    }
+
+    public static TypeMembers of(TypeToken<?> token) {
+        return of(token.javaType());
+    }
+
+    public record ResolvedField(Field field, Type type) {}
+
+    public record ResolvedMethod(Method method, Type returnType, List<Type> parameterTypes) {}
+
+    public record ResolvedConstructor(Constructor<?> constructor, List<Type> parameterTypes) {}
+
+    private final Type type;
+    private final List<ResolvedField> fields;
+    private final List<ResolvedMethod> methods;
+    private final List<ResolvedConstructor> constructors;
+
+    private TypeMembers(Type type, Template template, Map<TypeVariable<?>, Type> args) {
+        this.type = type;
+        Type[] types = args.isEmpty() ? template.types : TypeRewriter.substitution(args).rewrite(template.types);
+        int offset = 0;
+        ResolvedField[] fields = new ResolvedField[template.fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = new ResolvedField(template.fields[i], types[offset++]);
+        }
+        ResolvedMethod[] methods = new ResolvedMethod[template.methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            int arity = template.methodArities[i];
+            methods[i] = new ResolvedMethod(template.methods[i], types[offset],
+                    List.of(Arrays.copyOfRange(types, offset + 1, offset + 1 + arity)));
+            offset += arity + 1;
+        }
+        ResolvedConstructor[] constructors = new ResolvedConstructor[template.constructors.length];
+        for (int i = 0; i < constructors.length; i++) {
+            int arity = template.constructorArities[i];
+            constructors[i] = new ResolvedConstructor(template.constructors[i],
+                    List.of(Arrays.copyOfRange(types, offset, offset + arity)));
+            offset += arity;
+        }
+        this.fields = List.of(fields);
+        this.methods = List.of(methods);
+        this.constructors = List.of(constructors);
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    public List<ResolvedField> fields() {
+        return fields;
+    }
+
+    public List<ResolvedMethod> methods() {
+        return methods;
+    }
+
+    public List<ResolvedConstructor> constructors() {
+        return constructors;
+    }
+
+    public ResolvedField field(String name) {
+        for (ResolvedField field : fields) {
+            if (field.field().getName().equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException(String.format("No field %s in %s", name, type.getTypeName()));
+    }
+
+    public List<ResolvedMethod> methods(String name) {
+        List<ResolvedMethod> result = new ArrayList<>();
+        for (ResolvedMethod method : methods) {
+            if (method.method().getName().equals(name)) {
+                result.add(method);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public String toString() {
+        return type.getTypeName();
+    }
+
+    private static final class Template {
+
+        private final Field[] fields;
+        private final Method[] methods;
+        private final int[] methodArities;
+        private final Constructor<?>[] constructors;
+        private final int[] constructorArities;
+        private final Type[] types;
+
+        private Template(Class<?> clazz) {
+            ClassHierarchy hierarchy = ClassHierarchy.of(clazz);
+            List<Field> fields = new ArrayList<>();
+            List<Method> methods = new ArrayList<>();
+            List<Type> fieldTypes = new ArrayList<>();
+            List<Type> methodTypes = new ArrayList<>();
+            List<Type> constructorTypes = new ArrayList<>();
+            Set<List<Object>> erasedSignatures = new HashSet<>();
+            Set<List<Object>> resolvedSignatures = new HashSet<>();
+            for (Class<?> ancestor : ancestors(clazz)) {
+                TypeRewriter rewriter = TypeRewriter
+                        .substitution(JavaType.templateArguments(hierarchy.erasedSupertypeTemplate(ancestor)));
+                for (Field field : ancestor.getDeclaredFields()) {
+                    if (!field.isSynthetic()) {
+                        fields.add(field);
+                        fieldTypes.add(rewriter.rewrite(field.getGenericType()));
+                    }
+                }
+                for (Method method : ancestor.getDeclaredMethods()) {
+                    if (method.isSynthetic() || method.isBridge() || !inherits(clazz, method)) {
+                        continue;
+                    }
+                    Type[] params = rewriter.rewrite(method.getGenericParameterTypes());
+                    boolean erasedNew = erasedSignatures.add(signature(method.getName(), method.getParameterTypes()));
+                    boolean resolvedNew = resolvedSignatures.add(signature(method.getName(), params));
+                    if (erasedNew && resolvedNew) {
+                        methods.add(method);
+                        methodTypes.add(rewriter.rewrite(method.getGenericReturnType()));
+                        Collections.addAll(methodTypes, params);
+                    }
+                }
+            }
+            Constructor<?>[] constructors = clazz.getDeclaredConstructors();
+            this.constructorArities = new int[constructors.length];
+            for (int i = 0; i < constructors.length; i++) {
+                Type[] params = constructors[i].getGenericParameterTypes();
+                constructorArities[i] = params.length;
+                Collections.addAll(constructorTypes, params);
+            }
+            this.fields = fields.toArray(new Field[0]);
+            this.methods = methods.toArray(new Method[0]);
+            this.constructors = constructors;
+            this.methodArities = new int[this.methods.length];
+            for (int i = 0; i < this.methods.length; i++) {
+                methodArities[i] = this.methods[i].getGenericParameterTypes().length;
+            }
+            List<Type> types = new ArrayList<>(fieldTypes);
+            types.addAll(methodTypes);
+            types.addAll(constructorTypes);
+            this.types = types.toArray(new Type[0]);
+        }
+
+        private static Set<Class<?>> ancestors(Class<?> clazz) {
+            Set<Class<?>> ancestors = new LinkedHashSet<>();
+            for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+                ancestors.add(c);
+            }
+            Deque<Class<?>> pending = new ArrayDeque<>(ancestors);
+            while (!pending.isEmpty()) {
+                for (Class<?> superInterface : pending.poll().getInterfaces()) {
+                    if (ancestors.add(superInterface)) {
+                        pending.add(superInterface);
+                    }
+                }
+            }
+            return ancestors;
+        }
+
+        private static boolean inherits(Class<?> clazz, Method method) {
+            Class<?> declaringClass = method.getDeclaringClass();
+            int modifiers = method.getModifiers();
+            if (declaringClass == clazz) {
+                return true;
+            } else if (Modifier.isPrivate(modifiers)
+                    || (Modifier.isStatic(modifiers) && declaringClass.isInterface())) {
+                return false;
+            }
+            return Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers)
+                    || (declaringClass.getPackageName().equals(clazz.getPackageName())
+                            && declaringClass.getClassLoader() == clazz.getClassLoader());
+        }
+
+        private static List<Object> signature(String name, Type[] parameterTypes) {
+            List<Object> signature = new ArrayList<>(parameterTypes.length + 1);
+            signature.add(name);
+            Collections.addAll(signature, parameterTypes);
+            return signature;
+        }
+
+    }
+
+}
@@ -0,0 +1,298 @@
+package org.khovrino.type;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public final class TypePatternIndex<V> {
+
+    public static <V> TypePatternIndex<V> create() {
+        return new TypePatternIndex<>();
+    }
+
+    public record Match<V>(Type pattern, V value, Map<TypeVariable<?>, Type> bindings) {}
+
+    private enum Marker {
+        ARRAY, EXTENDS, SUPER, VARIABLE, ANY
+    }
+
+    private final Node root = new Node();
+    private int size;
+
+    private TypePatternIndex() {
+    }
+
+    public TypePatternIndex<V> add(Type pattern, V value) {
+        Objects.requireNonNull(pattern);
+        if (pattern instanceof WildcardType) {
+            throw new IllegalArgumentException(String.format("Wildcard pattern %s", pattern.getTypeName()));
+        }
+        Sequence sequence = new Sequence();
+        List<TypeVariable<?>> variables = new ArrayList<>();
+        boolean verify = sequence.append(pattern, variables);
+        Node node = root;
+        for (int i = 0; i < sequence.size; i++) {
+            node = node.child(sequence.symbols[i]);
+        }
+        if (node.patterns == null) {
+            node.patterns = new ArrayList<>(1);
+        }
+        node.patterns.add(new Pattern<>(size++, pattern, value, variables.toArray(new TypeVariable<?>[0]), verify));
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<Match<V>> match(Type type) {
+        Objects.requireNonNull(type);
+        Matcher matcher = new Matcher(type);
+        matcher.top(root, type);
+        if (matcher.matches.isEmpty()) {
+            return List.of();
+        }
+        matcher.matches.sort(Comparator.comparingInt(Found::id));
+        List<Match<V>> result = new ArrayList<>(matcher.matches.size());
+        for (Found<V> found : matcher.matches) {
+            result.add(found.match);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static boolean bindable(Object symbol) {
+        return !(symbol instanceof Class<?> clazz && clazz.isPrimitive());
+    }
+
+    private static boolean wildcard(Object symbol) {
+        return symbol == Marker.EXTENDS || symbol == Marker.SUPER;
+    }
+
+    private static final class Node {
+
+        private final Map<Object, Node> children = new HashMap<>();
+        private Node variable;
+        private Node any;
+        private List<Pattern<?>> patterns;
+
+        Node child(Object symbol) {
+            if (symbol == Marker.VARIABLE) {
+                return variable == null ? variable = new Node() : variable;
+            } else if (symbol == Marker.ANY) {
+                return any == null ? any = new Node() : any;
+            }
+            return children.computeIfAbsent(symbol, s -> new Node());
+        }
+
+    }
+
+    private record Pattern<V>(int id, Type type, V value, TypeVariable<?>[] variables, boolean verify) {}
+
+    private record Found<V>(int id, Match<V> match) {}
+
+    private static final class Sequence {
+
+        private Object[] symbols = new Object[16];
+        private Type[] terms = new Type[16];
+        private int[] ends = new int[16];
+        private int size;
+
+        boolean append(Type type, List<TypeVariable<?>> variables) {
+            int index = size;
+            if (size == symbols.length) {
+                symbols = Arrays.copyOf(symbols, size * 2);
+                terms = Arrays.copyOf(terms, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            terms[index] = type;
+            size++;
+            boolean verify = false;
+            if (type instanceof Class<?> clazz) {
+                if (clazz.isArray()) {
+                    symbols[index] = Marker.ARRAY;
+                    verify = append(clazz.getComponentType(), variables);
+                } else {
+                    symbols[index] = clazz;
+                }
+            } else if (type instanceof ParameterizedType paramType) {
+                symbols[index] = ClassHierarchy.of((Class<?>) paramType.getRawType());
+                if (paramType.getOwnerType() instanceof ParameterizedType owner) {
+                    verify = append(owner, variables);
+                }
+                for (Type arg : paramType.getActualTypeArguments()) {
+                    verify |= append(arg, variables);
+                }
+            } else if (type instanceof GenericArrayType arrayType) {
+                symbols[index] = Marker.ARRAY;
+                verify = append(arrayType.getGenericComponentType(), variables);
+            } else if (type instanceof WildcardType wildcardType) {
+                if (variables != null) {
+                    symbols[index] = Marker.ANY;
+                    verify = true;
+                } else if (wildcardType.getLowerBounds().length > 0) {
+                    symbols[index] = Marker.SUPER;
+                    append(wildcardType.getLowerBounds()[0], null);
+                } else {
+                    symbols[index] = Marker.EXTENDS;
+                    Type[] upperBounds = wildcardType.getUpperBounds();
+                    append(upperBounds.length == 0 ? Object.class : upperBounds[0], null);
+                }
+            } else if (type instanceof TypeVariable<?> variable) {
+                if (variables != null) {
+                    symbols[index] = Marker.VARIABLE;
+                    variables.add(variable);
+                } else {
+                    symbols[index] = variable;
+                }
+            } else {
+                throw new IllegalArgumentException(String.format("Unsupported type %s", type));
+            }
+            ends[index] = size;
+            return verify;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+    }
+
+    private final class Matcher {
+
+        private final Type input;
+        private final List<Found<V>> matches = new ArrayList<>();
+        private final BitSet found = new BitSet();
+        private final Sequence sequence = new Sequence();
+        private Type[] bound = new Type[8];
+        private int wildcards;
+
+        Matcher(Type input) {
+            this.input = input;
+        }
+
+        void top(Node node, Type type) {
+            if (type instanceof WildcardType) {
+                throw new IllegalArgumentException();
+            } else if (type instanceof TypeVariable<?> variable) {
+                for (Type bound : variable.getBounds()) {
+                    top(node, bound);
+                }
+                return;
+            } else if (JavaType.isPrimitive(type)) {
+                Node child = node.children.get(type);
+                if (child != null) {
+                    emit(child, 0);
+                }
+                return;
+            }
+            if (node.variable != null) {
+                bound[0] = type;
+                emit(node.variable, 1);
+            }
+            Node object = node.children.get(Object.class);
+            if (object != null) {
+                emit(object, 0);
+            }
+            if (JavaType.isArray(type)) {
+                Node array = node.children.get(Marker.ARRAY);
+                if (array != null) {
+                    top(array, JavaType.componentType(type));
+                }
+                return;
+            }
+            Class<?> raw = JavaType.rawType(type);
+            for (Class<?> ancestor : ClassHierarchy.of(raw).ancestors()) {
+                if (ancestor != Object.class && (node.children.containsKey(ancestor)
+                        || node.children.containsKey(ClassHierarchy.of(ancestor)))) {
+                    sequence.clear();
+                    sequence.append(JavaType.downgrade(type, ancestor), null);
+                    Node child = node.children.get(sequence.symbols[0]);
+                    if (child != null) {
+                        walk(child, 1, 0);
+                    }
+                }
+            }
+        }
+
+        private void walk(Node node, int position, int depth) {
+            if (position == sequence.size) {
+                emit(node, depth);
+                return;
+            }
+            Object symbol = sequence.symbols[position];
+            Node child = node.children.get(symbol);
+            if (child != null) {
+                walk(child, position + 1, depth);
+            }
+            if (node.variable != null && bindable(symbol)) {
+                if (depth == bound.length) {
+                    bound = Arrays.copyOf(bound, depth * 2);
+                }
+                bound[depth] = sequence.terms[position];
+                boolean wildcard = wildcard(symbol);
+                wildcards += wildcard ? 1 : 0;
+                walk(node.variable, sequence.ends[position], depth + 1);
+                wildcards -= wildcard ? 1 : 0;
+            }
+            if (node.any != null) {
+                walk(node.any, sequence.ends[position], depth);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void emit(Node node, int depth) {
+            if (node.patterns == null) {
+                return;
+            }
+            for (Pattern<?> pattern : node.patterns) {
+                if (found.get(pattern.id())) {
+                    continue;
+                }
+                Map<TypeVariable<?>, Type> bindings;
+                if (pattern.verify() || wildcards > 0) {
+                    try {
+                        bindings = JavaType.solveSuper(pattern.type(), input);
+                    } catch (IllegalArgumentException | IllegalStateException e) {
+                        continue;
+                    }
+                } else {
+                    bindings = bind(pattern.variables(), depth);
+                    if (bindings == null) {
+                        continue;
+                    }
+                }
+                found.set(pattern.id());
+                matches.add(new Found<>(pattern.id(), new Match<>(pattern.type(), (V) pattern.value(),
+                        Collections.unmodifiableMap(bindings))));
+            }
+        }
+
+        private Map<TypeVariable<?>, Type> bind(TypeVariable<?>[] variables, int depth) {
+            if (variables.length != depth) {
+                return null;
+            }
+            Map<TypeVariable<?>, Type> bindings = new LinkedHashMap<>();
+            for (int i = 0; i < variables.length; i++) {
+                Type previous = bindings.putIfAbsent(variables[i], bound[i]);
+                if (previous != null && !previous.equals(bound[i])) {
+                    return null;
+                }
+            }
+            return bindings;
+        }
+
+    }
+
+}
@@ -0,0 +1,159 @@
+package org.khovrino.type;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public abstract class TypeRewriter {
+
+    public static TypeRewriter substitution(Map<?, ? extends Type> substitution) {
+        Objects.requireNonNull(substitution);
+        return new TypeRewriter() {
+            @Override
+            protected Type rewriteVariable(TypeVariable<?> variable) {
+                return Objects.requireNonNullElse(substitution.get(variable), variable);
+            }
+        };
+    }
+
+    protected Type rewriteClass(Class<?> type) {
+        return type;
+    }
+
+    protected Type rewriteVariable(TypeVariable<?> variable) {
+        return variable;
+    }
+
+    public final Type rewrite(Type type) {
+        Objects.requireNonNull(type);
+        if (type instanceof Class<?> clazz) {
+            return rewriteClass(clazz);
+        } else if (type instanceof TypeVariable<?> variable) {
+            return rewriteVariable(variable);
+        } else {
+            return rewriteTree(type, new IdentityHashMap<>(), new ArrayDeque<>());
+        }
+    }
+
+    final Type rewrite(Type type, Map<Type, Type> memo, Deque<Type> stack) {
+        if (type instanceof Class<?> clazz) {
+            return rewriteClass(clazz);
+        } else if (type instanceof TypeVariable<?> variable) {
+            return rewriteVariable(variable);
+        } else {
+            return rewriteTree(type, memo, stack);
+        }
+    }
+
+    public final Type[] rewrite(Type[] types) {
+        Map<Type, Type> memo = new IdentityHashMap<>();
+        Deque<Type> stack = new ArrayDeque<>();
+        Type[] result = new Type[types.length];
+        for (int i = 0; i < types.length; i++) {
+            result[i] = rewriteTree(Objects.requireNonNull(types[i]), memo, stack);
+        }
+        return result;
+    }
+
+    private Type rewriteTree(Type root, Map<Type, Type> memo, Deque<Type> stack) {
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Type top = stack.peek();
+            if (memo.containsKey(top)) {
+                stack.pop();
+                continue;
+            }
+            int depth = stack.size();
+            if (top instanceof ParameterizedType paramType) {
+                Type owner = paramType.getOwnerType();
+                if (owner != null) {
+                    pushPending(stack, memo, owner);
+                }
+                for (Type arg : paramType.getActualTypeArguments()) {
+                    pushPending(stack, memo, arg);
+                }
+            } else if (top instanceof WildcardType wildcardType) {
+                for (Type bound : wildcardType.getLowerBounds()) {
+                    pushPending(stack, memo, bound);
+                }
+                for (Type bound : wildcardType.getUpperBounds()) {
+                    pushPending(stack, memo, bound);
+                }
+            } else if (top instanceof GenericArrayType arrayType) {
+                pushPending(stack, memo, arrayType.getGenericComponentType());
+            }
+            if (stack.size() == depth) {
+                stack.pop();
+                memo.put(top, build(top, memo));
+            }
+        }
+        return memo.get(root);
+    }
+
+    private static void pushPending(Deque<Type> stack, Map<Type, Type> memo, Type type) {
+        if (!memo.containsKey(type)) {
+            stack.push(type);
+        }
+    }
+
+    private Type build(Type src, Map<Type, Type> memo) {
+        if (src instanceof Class<?> clazz) {
+            return rewriteClass(clazz);
+        } else if (src instanceof TypeVariable<?> variable) {
+            return rewriteVariable(variable);
+        } else if (src instanceof WildcardType wildcardType) {
+            Type[] srcLowerBounds = wildcardType.getLowerBounds();
+            Type[] srcUpperBounds = wildcardType.getUpperBounds();
+            Type[] dstLowerBounds = lookup(srcLowerBounds, memo);
+            Type[] dstUpperBounds = lookup(srcUpperBounds, memo);
+            if (dstLowerBounds == srcLowerBounds && dstUpperBounds == srcUpperBounds) {
+                return src;
+            } else {
+                return new WildcardTypeImpl(dstLowerBounds, dstUpperBounds);
+            }
+        } else if (src instanceof GenericArrayType arrayType) {
+            Type srcComponent = arrayType.getGenericComponentType();
+            Type dstComponent = memo.get(srcComponent);
+            if (srcComponent == dstComponent) {
+                return src;
+            } else {
+                return new GenericArrayTypeImpl(dstComponent);
+            }
+        } else if (src instanceof ParameterizedType paramType) {
+            Type srcOwner = paramType.getOwnerType();
+            Type[] srcArgs = paramType.getActualTypeArguments();
+            Type dstOwner = srcOwner == null ? null : memo.get(srcOwner);
+            Type[] dstArgs = lookup(srcArgs, memo);
+            if (srcOwner == dstOwner && srcArgs == dstArgs) {
+                return src;
+            } else {
+                return new ParameterizedTypeImpl(dstOwner, (Class<?>) paramType.getRawType(), dstArgs);
+            }
+        } else {
+            return src;
+        }
+    }
+
+    private static Type[] lookup(Type[] src, Map<Type, Type> memo) {
+        Type[] dst = src;
+        for (int i = 0; i < src.length; i++) {
+            Type type = memo.get(src[i]);
+            if (type != src[i]) {
+                if (dst == src) {
+                    dst = Arrays.copyOf(src, src.length, Type[].class);
+                }
+                dst[i] = type;
+            }
+        }
+        return dst;
+    }
+
+}
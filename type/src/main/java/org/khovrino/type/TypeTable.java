@@ -0,0 +1,575 @@
+package org.khovrino.type;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public final class TypeTable {
+
+    public static final int NONE = -1;
+
+    private static final byte CLASS = 0;
+    private static final byte PARAMETERIZED = 1;
+    private static final byte WILDCARD = 2;
+    private static final byte ARRAY = 3;
+    private static final byte VARIABLE = 4;
+    private static final byte KIND_MASK = 0x0f;
+    private static final byte GROUND = 0x10;
+
+    private static final int[] NO_IDS = new int[0];
+
+    private byte[] kinds = new byte[64];
+    private int[] refs = new int[64];
+    private int[] owners = new int[64];
+    private int[] starts = new int[64];
+    private int[] lengths = new int[64];
+    private int size;
+
+    private int[] operands = new int[128];
+    private int operandCount;
+
+    private int[] index = new int[128];
+
+    private Object[] symbols = new Object[32];
+    private int[][] symbolSupertypes = new int[32][];
+    private int[][] symbolParameters = new int[32][];
+    private int symbolCount;
+    private final Map<Object, Integer> symbolIds = new HashMap<>();
+
+    public int size() {
+        return size;
+    }
+
+    public int intern(Type type) {
+        Objects.requireNonNull(type);
+        if (type instanceof Class<?> clazz) {
+            return insert(CLASS, symbol(clazz), NONE, NO_IDS, 0);
+        } else if (type instanceof TypeVariable<?> variable) {
+            return insert(VARIABLE, symbol(variable), NONE, NO_IDS, 0);
+        } else if (type instanceof ParameterizedType paramType) {
+            Type ownerType = paramType.getOwnerType();
+            int owner = ownerType == null ? NONE : intern(ownerType);
+            Type[] args = paramType.getActualTypeArguments();
+            int[] ids = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                ids[i] = intern(args[i]);
+            }
+            return insert(PARAMETERIZED, symbol(paramType.getRawType()), owner, ids, ids.length);
+        } else if (type instanceof WildcardType wildcardType) {
+            Type[] lowerBounds = wildcardType.getLowerBounds();
+            Type[] upperBounds = wildcardType.getUpperBounds();
+            int[] ids = new int[lowerBounds.length + upperBounds.length];
+            for (int i = 0; i < lowerBounds.length; i++) {
+                ids[i] = intern(lowerBounds[i]);
+            }
+            for (int i = 0; i < upperBounds.length; i++) {
+                ids[lowerBounds.length + i] = intern(upperBounds[i]);
+            }
+            return insert(WILDCARD, lowerBounds.length, NONE, ids, ids.length);
+        } else if (type instanceof GenericArrayType arrayType) {
+            return insert(ARRAY, intern(arrayType.getGenericComponentType()), NONE, NO_IDS, 0);
+        } else {
+            throw new IllegalArgumentException(type.getClass().getName());
+        }
+    }
+
+    public Type toType(int id) {
+        checkId(id);
+        switch (kind(id)) {
+            case CLASS, VARIABLE:
+                return (Type) symbols[refs[id]];
+            case PARAMETERIZED: {
+                Type owner = owners[id] == NONE ? null : toType(owners[id]);
+                return new ParameterizedTypeImpl(owner, (Class<?>) symbols[refs[id]], toTypes(starts[id], lengths[id]));
+            }
+            case WILDCARD: {
+                int lowerCount = refs[id];
+                return new WildcardTypeImpl(toTypes(starts[id], lowerCount),
+                        toTypes(starts[id] + lowerCount, lengths[id] - lowerCount));
+            }
+            case ARRAY:
+                return new GenericArrayTypeImpl(toType(refs[id]));
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    public boolean isGround(int id) {
+        checkId(id);
+        return (kinds[id] & GROUND) != 0;
+    }
+
+    public boolean isVariable(int id) {
+        checkId(id);
+        return kind(id) == VARIABLE;
+    }
+
+    public boolean isWildcard(int id) {
+        checkId(id);
+        return kind(id) == WILDCARD;
+    }
+
+    public boolean isArray(int id) {
+        checkId(id);
+        return switch (kind(id)) {
+            case ARRAY -> true;
+            case CLASS -> ((Class<?>) symbols[refs[id]]).isArray();
+            case VARIABLE -> throw new IllegalArgumentException();
+            default -> false;
+        };
+    }
+
+    public int componentType(int id) {
+        checkId(id);
+        if (kind(id) == ARRAY) {
+            return refs[id];
+        } else if (kind(id) == CLASS && ((Class<?>) symbols[refs[id]]).isArray()) {
+            return intern(((Class<?>) symbols[refs[id]]).getComponentType());
+        } else {
+            throw new IllegalArgumentException(String.format("Not an array: %s", toType(id).getTypeName()));
+        }
+    }
+
+    public int arrayType(int id) {
+        checkId(id);
+        if (kind(id) == CLASS) {
+            return intern(((Class<?>) symbols[refs[id]]).arrayType());
+        } else {
+            return insert(ARRAY, id, NONE, NO_IDS, 0);
+        }
+    }
+
+    public Class<?> rawType(int id) {
+        checkId(id);
+        return switch (kind(id)) {
+            case CLASS -> (Class<?>) JavaType.requireNonRawClass((Class<?>) symbols[refs[id]]);
+            case PARAMETERIZED -> (Class<?>) symbols[refs[id]];
+            case ARRAY -> rawType(refs[id]).arrayType();
+            default -> throw new IllegalArgumentException();
+        };
+    }
+
+    public int ownerType(int id) {
+        checkId(id);
+        return owners[id];
+    }
+
+    public int argumentCount(int id) {
+        checkId(id);
+        return kind(id) == PARAMETERIZED ? lengths[id] : 0;
+    }
+
+    public int argument(int id, int index) {
+        checkId(id);
+        if (kind(id) != PARAMETERIZED) {
+            throw new IllegalArgumentException(String.format("Not parameterized: %s", toType(id).getTypeName()));
+        }
+        Objects.checkIndex(index, lengths[id]);
+        return operands[starts[id] + index];
+    }
+
+    public int substitute(int id, int[] variables, int[] values) {
+        checkId(id);
+        if (variables.length != values.length) {
+            throw new IllegalArgumentException(
+                    String.format("%d variables and %d values", variables.length, values.length));
+        }
+        return substitute(id, variables, values, new IdMap());
+    }
+
+    public int downgrade(int id, Class<?> superClass) {
+        checkId(id);
+        Objects.requireNonNull(superClass);
+        if (isArray(id) && superClass.isArray()) {
+            return arrayType(downgrade(componentType(id), superClass.componentType()));
+        }
+        int curr = id;
+        Class<?> currClass = rawType(curr);
+        if (!superClass.isAssignableFrom(currClass)) {
+            throw new IllegalArgumentException(
+                    String.format("%s is not assignable from %s", superClass.getName(), currClass.getName()));
+        }
+        if (!currClass.equals(superClass) && (currClass.isArray() || superClass.equals(Object.class))) {
+            return intern(superClass);
+        }
+        while (!currClass.equals(superClass)) {
+            int[] variables = typeParameters(curr);
+            int[] values = typeArguments(curr);
+            int[] supertypes = supertypes(currClass);
+            Class<?> nextClass = currClass.getSuperclass();
+            if (nextClass != null && superClass.isAssignableFrom(nextClass)) {
+                curr = substitute(supertypes[0], variables, values, new IdMap());
+                currClass = nextClass;
+            } else {
+                Class<?>[] superInterfaces = currClass.getInterfaces();
+                for (int i = 0; i < superInterfaces.length; i++) {
+                    if (superClass.isAssignableFrom(superInterfaces[i])) {
+                        curr = substitute(supertypes[i + 1], variables, values, new IdMap());
+                        currClass = superInterfaces[i];
+                        break;
+                    }
+                }
+            }
+        }
+        return curr;
+    }
+
+    public boolean testExtends(int subId, int superId) {
+        checkId(subId);
+        checkId(superId);
+        if (JavaType.GROUND_FAST_LANE && isGround(subId) && isGround(superId)) {
+            return extendsGround(subId, superId);
+        }
+        return JavaType.testExtends(toType(subId), toType(superId));
+    }
+
+    private boolean extendsGround(int subId, int superId) {
+        if (kind(subId) == WILDCARD || kind(superId) == WILDCARD) {
+            throw new IllegalArgumentException();
+        }
+        if (isPrimitive(subId) || isPrimitive(superId)) {
+            return subId == superId;
+        }
+        if (kind(superId) == CLASS && symbols[refs[superId]] == Object.class) {
+            return true;
+        }
+        if (isArray(subId)) {
+            return isArray(superId) && extendsGround(componentType(subId), componentType(superId));
+        } else if (isArray(superId)) {
+            return false;
+        }
+        Class<?> superClass = rawType(superId);
+        if (!superClass.isAssignableFrom(rawType(subId))) {
+            return false;
+        }
+        return argumentsContainedGround(downgrade(subId, superClass), superId);
+    }
+
+    private boolean argumentsContainedGround(int subId, int superId) {
+        if (subId != NONE && superId != NONE && kind(subId) == PARAMETERIZED && kind(superId) == PARAMETERIZED) {
+            if (!argumentsContainedGround(owners[subId], owners[superId])) {
+                return false;
+            }
+            for (int i = 0; i < lengths[subId]; i++) {
+                if (!containedByGround(operands[starts[subId] + i], operands[starts[superId] + i])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean containedByGround(int innerRange, int outerRange) {
+        if (kind(outerRange) == WILDCARD) {
+            int lowerCount = refs[outerRange];
+            for (int i = lowerCount; i < lengths[outerRange]; i++) {
+                if (!innerExtendsGround(innerRange, operands[starts[outerRange] + i])) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < lowerCount; i++) {
+                if (!innerSuperGround(innerRange, operands[starts[outerRange] + i])) {
+                    return false;
+                }
+            }
+            return true;
+        } else {
+            return innerExtendsGround(innerRange, outerRange) && innerSuperGround(innerRange, outerRange);
+        }
+    }
+
+    private boolean innerExtendsGround(int innerRange, int outerExtendsBound) {
+        if (kind(innerRange) == WILDCARD) {
+            for (int i = refs[innerRange]; i < lengths[innerRange]; i++) {
+                if (extendsGround(operands[starts[innerRange] + i], outerExtendsBound)) {
+                    return true;
+                }
+            }
+            return false;
+        } else {
+            return extendsGround(innerRange, outerExtendsBound);
+        }
+    }
+
+    private boolean innerSuperGround(int innerRange, int outerSuperBound) {
+        if (kind(innerRange) == WILDCARD) {
+            for (int i = 0; i < refs[innerRange]; i++) {
+                if (extendsGround(outerSuperBound, operands[starts[innerRange] + i])) {
+                    return true;
+                }
+            }
+            return false;
+        } else {
+            return extendsGround(outerSuperBound, innerRange);
+        }
+    }
+
+    private boolean isPrimitive(int id) {
+        return kind(id) == CLASS && ((Class<?>) symbols[refs[id]]).isPrimitive();
+    }
+
+    private int substitute(int id, int[] variables, int[] values, IdMap memo) {
+        if ((kinds[id] & GROUND) != 0) {
+            return id;
+        }
+        int result = memo.get(id);
+        if (result != NONE) {
+            return result;
+        }
+        switch (kind(id)) {
+            case VARIABLE -> {
+                result = id;
+                for (int i = 0; i < variables.length; i++) {
+                    if (variables[i] == id) {
+                        result = values[i];
+                        break;
+                    }
+                }
+            }
+            case ARRAY -> {
+                int component = substitute(refs[id], variables, values, memo);
+                result = component == refs[id] ? id : insert(ARRAY, component, NONE, NO_IDS, 0);
+            }
+            default -> {
+                int owner = owners[id] == NONE ? NONE : substitute(owners[id], variables, values, memo);
+                int length = lengths[id];
+                int[] ids = Arrays.copyOfRange(operands, starts[id], starts[id] + length);
+                boolean changed = owner != owners[id];
+                for (int i = 0; i < length; i++) {
+                    int arg = substitute(ids[i], variables, values, memo);
+                    changed |= arg != ids[i];
+                    ids[i] = arg;
+                }
+                result = changed ? insert(kind(id), refs[id], owner, ids, length) : id;
+            }
+        }
+        memo.put(id, result);
+        return result;
+    }
+
+    private int[] typeParameters(int id) {
+        int count = 0;
+        for (int p = id; p != NONE && kind(p) == PARAMETERIZED; p = owners[p]) {
+            count += lengths[p];
+        }
+        int[] variables = new int[count];
+        for (int p = id; p != NONE && kind(p) == PARAMETERIZED; p = owners[p]) {
+            int[] params = parameters(refs[p]);
+            count -= params.length;
+            System.arraycopy(params, 0, variables, count, params.length);
+        }
+        return variables;
+    }
+
+    private int[] typeArguments(int id) {
+        int count = 0;
+        for (int p = id; p != NONE && kind(p) == PARAMETERIZED; p = owners[p]) {
+            count += lengths[p];
+        }
+        int[] values = new int[count];
+        for (int p = id; p != NONE && kind(p) == PARAMETERIZED; p = owners[p]) {
+            count -= lengths[p];
+            System.arraycopy(operands, starts[p], values, count, lengths[p]);
+        }
+        return values;
+    }
+
+    private int[] parameters(int symbol) {
+        int[] params = symbolParameters[symbol];
+        if (params == null) {
+            TypeVariable<?>[] vars = ((Class<?>) symbols[symbol]).getTypeParameters();
+            params = new int[vars.length];
+            for (int i = 0; i < vars.length; i++) {
+                params[i] = intern(vars[i]);
+            }
+            symbolParameters[symbol] = params;
+        }
+        return params;
+    }
+
+    private int[] supertypes(Class<?> clazz) {
+        int symbol = symbol(clazz);
+        int[] supertypes = symbolSupertypes[symbol];
+        if (supertypes == null) {
+            Type superClass = clazz.getGenericSuperclass();
+            Type[] superInterfaces = clazz.getGenericInterfaces();
+            supertypes = new int[superInterfaces.length + 1];
+            supertypes[0] = superClass == null ? NONE : intern(superClass);
+            for (int i = 0; i < superInterfaces.length; i++) {
+                supertypes[i + 1] = intern(superInterfaces[i]);
+            }
+            symbolSupertypes[symbol] = supertypes;
+        }
+        return supertypes;
+    }
+
+    private int symbol(Object symbol) {
+        Integer id = symbolIds.get(symbol);
+        if (id == null) {
+            if (symbolCount == symbols.length) {
+                symbols = Arrays.copyOf(symbols, symbolCount * 2);
+                symbolSupertypes = Arrays.copyOf(symbolSupertypes, symbolCount * 2);
+                symbolParameters = Arrays.copyOf(symbolParameters, symbolCount * 2);
+            }
+            id = symbolCount++;
+            symbols[id] = symbol;
+            symbolIds.put(symbol, id);
+        }
+        return id;
+    }
+
+    private int insert(byte kind, int ref, int owner, int[] ids, int length) {
+        int hash = hash(kind, ref, owner, ids, length);
+        int mask = index.length - 1;
+        for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+            int entry = index[slot] - 1;
+            if (entry == NONE) {
+                break;
+            } else if (matches(entry, kind, ref, owner, ids, length)) {
+                return entry;
+            }
+        }
+        int id = size;
+        if (id == kinds.length) {
+            int capacity = id * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            refs = Arrays.copyOf(refs, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        if (operandCount + length > operands.length) {
+            operands = Arrays.copyOf(operands, Math.max(operands.length * 2, operandCount + length));
+        }
+        boolean ground = kind != VARIABLE && (owner == NONE || (kinds[owner] & GROUND) != 0)
+                && (kind != ARRAY || (kinds[ref] & GROUND) != 0);
+        for (int i = 0; i < length; i++) {
+            ground &= (kinds[ids[i]] & GROUND) != 0;
+        }
+        kinds[id] = (byte) (ground ? kind | GROUND : kind);
+        refs[id] = ref;
+        owners[id] = owner;
+        starts[id] = operandCount;
+        lengths[id] = length;
+        System.arraycopy(ids, 0, operands, operandCount, length);
+        operandCount += length;
+        size++;
+        if (size * 2 > index.length) {
+            rehash();
+        } else {
+            insertIndex(id, hash);
+        }
+        return id;
+    }
+
+    private boolean matches(int id, byte kind, int ref, int owner, int[] ids, int length) {
+        if (kind(id) != kind || refs[id] != ref || owners[id] != owner || lengths[id] != length) {
+            return false;
+        }
+        int start = starts[id];
+        for (int i = 0; i < length; i++) {
+            if (operands[start + i] != ids[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        index = new int[index.length * 2];
+        for (int id = 0; id < size; id++) {
+            insertIndex(id, hash(kind(id), refs[id], owners[id],
+                    Arrays.copyOfRange(operands, starts[id], starts[id] + lengths[id]), lengths[id]));
+        }
+    }
+
+    private void insertIndex(int id, int hash) {
+        int mask = index.length - 1;
+        int slot = hash & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = id + 1;
+    }
+
+    private static int hash(byte kind, int ref, int owner, int[] ids, int length) {
+        int h = kind;
+        h = 31 * h + ref;
+        h = 31 * h + owner;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + ids[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private Type[] toTypes(int start, int length) {
+        Type[] types = new Type[length];
+        for (int i = 0; i < length; i++) {
+            types[i] = toType(operands[start + i]);
+        }
+        return types;
+    }
+
+    private byte kind(int id) {
+        return (byte) (kinds[id] & KIND_MASK);
+    }
+
+    private void checkId(int id) {
+        Objects.checkIndex(id, size);
+    }
+
+    private static final class IdMap {
+
+        private int[] keys = new int[16];
+        private int[] values = new int[16];
+        private int size;
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key + 1) {
+                    return values[slot];
+                }
+            }
+            return NONE;
+        }
+
+        void put(int key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                int[] oldKeys = keys;
+                int[] oldValues = values;
+                keys = new int[oldKeys.length * 2];
+                values = new int[oldKeys.length * 2];
+                size = 0;
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != 0) {
+                        put(oldKeys[i] - 1, oldValues[i]);
+                    }
+                }
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != 0 && keys[slot] != key + 1) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == 0) {
+                size++;
+            }
+            keys[slot] = key + 1;
+            values[slot] = value;
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9e3779b9;
+            return h ^ (h >>> 16);
+        }
+
+    }
+
+}
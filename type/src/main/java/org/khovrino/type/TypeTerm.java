@@ -0,0 +1,180 @@
+package org.khovrino.type;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Objects;
+
+sealed interface TypeTerm {
+
+    TypeTerm[] NO_TERMS = new TypeTerm[0];
+
+    static TypeTerm of(Type type) {
+        Objects.requireNonNull(type);
+        if (type instanceof Class<?> clazz) {
+            return ClassHierarchy.of(clazz).term();
+        } else if (type instanceof ParameterizedTypeImpl paramType) {
+            return paramType.term();
+        } else if (type instanceof WildcardTypeImpl wildcardType) {
+            return wildcardType.term();
+        } else if (type instanceof GenericArrayTypeImpl arrayType) {
+            return arrayType.term();
+        } else {
+            return convert(type);
+        }
+    }
+
+    static TypeTerm convert(Type type) {
+        if (type instanceof ParameterizedType paramType) {
+            Type owner = paramType.getOwnerType();
+            return new Parameterized(owner == null ? null : of(owner), (Class<?>) paramType.getRawType(),
+                    of(paramType.getActualTypeArguments()));
+        } else if (type instanceof WildcardType wildcardType) {
+            return new Wildcard(of(wildcardType.getLowerBounds()), of(wildcardType.getUpperBounds()));
+        } else if (type instanceof GenericArrayType arrayType) {
+            return new Array(of(arrayType.getGenericComponentType()));
+        } else if (type instanceof TypeVariable<?> variable) {
+            return new Variable(variable);
+        } else if (type instanceof Class<?> clazz) {
+            return new ClassRef(clazz);
+        } else {
+            throw new IllegalArgumentException(type.getClass().getName());
+        }
+    }
+
+    private static TypeTerm[] of(Type[] types) {
+        if (types.length == 0) {
+            return NO_TERMS;
+        }
+        TypeTerm[] terms = new TypeTerm[types.length];
+        for (int i = 0; i < types.length; i++) {
+            terms[i] = of(types[i]);
+        }
+        return terms;
+    }
+
+    private static boolean allGround(TypeTerm[] terms) {
+        for (TypeTerm term : terms) {
+            if (!term.ground()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Type[] toTypes(TypeTerm[] terms) {
+        Type[] types = new Type[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            types[i] = terms[i].toType();
+        }
+        return types;
+    }
+
+    boolean ground();
+
+    Type toType();
+
+    record ClassRef(Class<?> type) implements TypeTerm {
+
+        @Override
+        public boolean ground() {
+            return true;
+        }
+
+        @Override
+        public Type toType() {
+            return type;
+        }
+
+    }
+
+    record Parameterized(TypeTerm owner, Class<?> raw, TypeTerm[] args, boolean ground) implements TypeTerm {
+
+        Parameterized(TypeTerm owner, Class<?> raw, TypeTerm[] args) {
+            this(owner, raw, args, (owner == null || owner.ground()) && allGround(args));
+        }
+
+        @Override
+        public Type toType() {
+            return new ParameterizedTypeImpl(owner == null ? null : owner.toType(), raw, toTypes(args));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Parameterized other && raw == other.raw && Objects.equals(owner, other.owner)
+                    && Arrays.equals(args, other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return (Objects.hashCode(owner) * 31 + raw.hashCode()) * 31 + Arrays.hashCode(args);
+        }
+
+        @Override
+        public String toString() {
+            return "Parameterized[owner=" + owner + ", raw=" + raw.getName() + ", args=" + Arrays.toString(args) + "]";
+        }
+
+    }
+
+    record Wildcard(TypeTerm[] lowerBounds, TypeTerm[] upperBounds, boolean ground) implements TypeTerm {
+
+        Wildcard(TypeTerm[] lowerBounds, TypeTerm[] upperBounds) {
+            this(lowerBounds, upperBounds, allGround(lowerBounds) && allGround(upperBounds));
+        }
+
+        @Override
+        public Type toType() {
+            return new WildcardTypeImpl(toTypes(lowerBounds), toTypes(upperBounds));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Wildcard other && Arrays.equals(lowerBounds, other.lowerBounds)
+                    && Arrays.equals(upperBounds, other.upperBounds);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(lowerBounds) * 31 + Arrays.hashCode(upperBounds);
+        }
+
+        @Override
+        public String toString() {
+            return "Wildcard[lowerBounds=" + Arrays.toString(lowerBounds) + ", upperBounds="
+                    + Arrays.toString(upperBounds) + "]";
+        }
+
+    }
+
+    record Array(TypeTerm component, boolean ground) implements TypeTerm {
+
+        Array(TypeTerm component) {
+            this(component, component.ground());
+        }
+
+        @Override
+        public Type toType() {
+            return new GenericArrayTypeImpl(component.toType());
+        }
+
+    }
+
+    record Variable(TypeVariable<?> variable) implements TypeTerm {
+
+        @Override
+        public boolean ground() {
+            return false;
+        }
+
+        @Override
+        public Type toType() {
+            return variable;
+        }
+
+    }
+
+}
@@ -1,12 +1,19 @@
 package org.khovrino.type;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class TypeToken<T> {
 
@@ -14,20 +21,66 @@ public abstract class TypeToken<T> {
         return fromJavaType(c);
     }
 
+    public static TypeToken<?> of(Type type) {
+        return fromJavaType(type);
+    }
+
+    @SuppressWarnings("unchecked")
     private static <T> TypeToken<T> fromJavaType(Type javaType) {
-        return new TypeToken<>(javaType) {};
+        return (TypeToken<T>) Registry.intern(JavaType.requireNonRawClass(Objects.requireNonNull(javaType)));
     }
 
+    private static final ClassValue<Type> ANONYMOUS_TYPES = new ClassValue<>() {
+        @Override
+        protected Type computeValue(Class<?> type) {
+            return owned(JavaType.requireNonRawClass(Objects.requireNonNull(
+                    JavaType.typeArguments(JavaType.downgrade(type, TypeToken.class))
+                            .get(TypeToken.class.getTypeParameters()[0]))));
+        }
+    };
+
     private final Type javaType;
+    private final int hash;
+    private TypeToken<?> canonical;
 
     private TypeToken(Type type) {
         this.javaType = JavaType.requireNonRawClass(Objects.requireNonNull(type));
+        this.hash = javaType.hashCode();
+        this.canonical = this;
     }
 
     protected TypeToken() {
-        this.javaType = JavaType.requireNonRawClass(Objects.requireNonNull(
-                JavaType.typeArguments(JavaType.downgrade(this.getClass(), TypeToken.class))
-                        .get(TypeToken.class.getTypeParameters()[0])));
+        this.javaType = ANONYMOUS_TYPES.get(this.getClass());
+        this.hash = javaType.hashCode();
+    }
+
+    final TypeToken<?> canonical() {
+        TypeToken<?> token = canonical;
+        if (token == null) {
+            token = Registry.intern(javaType);
+            canonical = token;
+        }
+        return token;
+    }
+
+    private static Type owned(Type type) {
+        if (type instanceof ParameterizedType paramType && !(type instanceof ParameterizedTypeImpl)) {
+            Type owner = paramType.getOwnerType();
+            return new ParameterizedTypeImpl(owner == null ? null : owned(owner), (Class<?>) paramType.getRawType(),
+                    owned(paramType.getActualTypeArguments()));
+        } else if (type instanceof WildcardType wildcardType && !(type instanceof WildcardTypeImpl)) {
+            return new WildcardTypeImpl(owned(wildcardType.getLowerBounds()), owned(wildcardType.getUpperBounds()));
+        } else if (type instanceof GenericArrayType arrayType && !(type instanceof GenericArrayTypeImpl)) {
+            return new GenericArrayTypeImpl(owned(arrayType.getGenericComponentType()));
+        }
+        return type;
+    }
+
+    private static Type[] owned(Type[] types) {
+        for (int i = 0; i < types.length; i++) {
+            types[i] = owned(types[i]);
+        }
+        return types;
     }
 
     @SuppressWarnings("unchecked")
@@ -49,7 +102,7 @@ public abstract class TypeToken<T> {
 
     @Override
     public final int hashCode() {
-        return javaType.hashCode();
+        return hash;
     }
 
     @Override
@@ -57,7 +110,7 @@ public abstract class TypeToken<T> {
         if (obj == this) {
             return true;
         } else if (obj instanceof TypeToken<?> that) {
-            return this.javaType.equals(that.javaType);
+            return this.hash == that.hash && this.javaType.equals(that.javaType);
         } else {
             return false;
         }
@@ -140,4 +193,96 @@ public abstract class TypeToken<T> {
         return map.transform(new TypeToken<Map<?, V>>() {}, new TypeToken<>() {});
     }
 
-}
\ No newline at end of file
+    private static final class Registry {
+
+        private static final Map<Object, Ref> TOKENS = new ConcurrentHashMap<>();
+
+        private static final ReferenceQueue<TypeToken<?>> QUEUE = new ReferenceQueue<>();
+
+        static TypeToken<?> intern(Type type) {
+            expunge();
+            Ref ref = TOKENS.get(new Lookup(type));
+            TypeToken<?> token = ref == null ? null : ref.get();
+            if (token != null) {
+                return token;
+            }
+            TypeToken<?> created = new TypeToken<>(type) {};
+            Ref createdRef = new Ref(created, QUEUE);
+            while (true) {
+                Ref previous = TOKENS.putIfAbsent(createdRef, createdRef);
+                if (previous == null) {
+                    return created;
+                }
+                token = previous.get();
+                if (token != null) {
+                    return token;
+                }
+                TOKENS.remove(previous, previous);
+            }
+        }
+
+        private static void expunge() {
+            Reference<?> ref;
+            while ((ref = QUEUE.poll()) != null) {
+                TOKENS.remove(ref, ref);
+            }
+        }
+
+        private static final class Ref extends WeakReference<TypeToken<?>> {
+
+            private final int hash;
+
+            private Ref(TypeToken<?> token, ReferenceQueue<TypeToken<?>> queue) {
+                super(token, queue);
+                this.hash = token.hash;
+            }
+
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+
+            @Override
+            public boolean equals(Object obj) {
+                if (obj == this) {
+                    return true;
+                } else if (obj instanceof Ref that) {
+                    TypeToken<?> token = get();
+                    return token != null && that.hash == hash && token.equals(that.get());
+                } else {
+                    return false;
+                }
+            }
+
+        }
+
+        private static final class Lookup {
+
+            private final Type type;
+            private final int hash;
+
+            private Lookup(Type type) {
+                this.type = type;
+                this.hash = type.hashCode();
+            }
+
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+
+            @Override
+            public boolean equals(Object obj) {
+                if (obj instanceof Ref ref) {
+                    TypeToken<?> token = ref.get();
+                    return token != null && ref.hash == hash && token.javaType.equals(type);
+                } else {
+                    return obj instanceof Lookup that && that.type.equals(type);
+                }
+            }
+
+        }
+
+    }
+
+}
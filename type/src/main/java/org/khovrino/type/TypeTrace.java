@@ -0,0 +1,195 @@
+package org.khovrino.type;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public final class TypeTrace {
+
+    private static final AtomicInteger SESSIONS = new AtomicInteger();
+
+    private static final ThreadLocal<TypeTrace> CURRENT = new ThreadLocal<>();
+
+    public static TypeTrace record(Runnable action) {
+        Objects.requireNonNull(action);
+        TypeTrace trace = new TypeTrace();
+        TypeTrace outer = CURRENT.get();
+        CURRENT.set(trace);
+        SESSIONS.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            trace.failure = e;
+        } finally {
+            trace.root.nanos = System.nanoTime() - start;
+            SESSIONS.decrementAndGet();
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+        return trace;
+    }
+
+    static TypeTrace current() {
+        return SESSIONS.get() == 0 ? null : CURRENT.get();
+    }
+
+    private final Goal root = new Goal(null, null, null, null);
+    private Goal current = root;
+    private RuntimeException failure;
+
+    private TypeTrace() {}
+
+    SolutionSet goal(String kind, Type left, Type right, SolutionMode mode, Supplier<SolutionSet> solver) {
+        Goal parent = current;
+        Goal goal = new Goal(kind, left, right, mode);
+        parent.children.add(goal);
+        current = goal;
+        long start = System.nanoTime();
+        try {
+            SolutionSet result = solver.get();
+            goal.cases = result.size();
+            return result;
+        } catch (RuntimeException e) {
+            goal.failure = e;
+            throw e;
+        } finally {
+            goal.nanos = System.nanoTime() - start;
+            current = parent;
+        }
+    }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    public RuntimeException failure() {
+        return failure;
+    }
+
+    public long elapsedNanos() {
+        return root.nanos;
+    }
+
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(failure == null ? "ok" : "failed: " + failure).append(", ").append(root.nanos).append(" ns\n");
+        for (Goal goal : root.children) {
+            goal.writeText(sb, 1);
+        }
+        return sb.toString();
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"elapsedNanos\":").append(root.nanos);
+        if (failure != null) {
+            sb.append(",\"failure\":");
+            writeJsonString(sb, failure.toString());
+        }
+        sb.append(",\"goals\":");
+        writeJsonArray(sb, root.children);
+        return sb.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+
+    private static void writeJsonArray(StringBuilder sb, List<Goal> goals) {
+        sb.append('[');
+        for (int i = 0; i < goals.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            goals.get(i).writeJson(sb);
+        }
+        sb.append(']');
+    }
+
+    private static void writeJsonString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static final class Goal {
+
+        private final String kind;
+        private final Type left;
+        private final Type right;
+        private final SolutionMode mode;
+        private final List<Goal> children = new ArrayList<>();
+        private int cases = -1;
+        private long nanos;
+        private RuntimeException failure;
+
+        private Goal(String kind, Type left, Type right, SolutionMode mode) {
+            this.kind = kind;
+            this.left = left;
+            this.right = right;
+            this.mode = mode;
+        }
+
+        private void writeText(StringBuilder sb, int depth) {
+            sb.append("  ".repeat(depth));
+            sb.append(kind).append('[').append(mode).append("] ");
+            sb.append(left.getTypeName()).append(" : ").append(right.getTypeName());
+            if (failure != null) {
+                sb.append(" => failed: ").append(failure);
+            } else {
+                sb.append(" => ").append(cases).append(cases == 1 ? " case" : " cases");
+            }
+            sb.append(", ").append(nanos).append(" ns\n");
+            for (Goal child : children) {
+                child.writeText(sb, depth + 1);
+            }
+        }
+
+        private void writeJson(StringBuilder sb) {
+            sb.append("{\"goal\":");
+            writeJsonString(sb, kind);
+            sb.append(",\"mode\":");
+            writeJsonString(sb, mode.name());
+            sb.append(",\"left\":");
+            writeJsonString(sb, left.getTypeName());
+            sb.append(",\"right\":");
+            writeJsonString(sb, right.getTypeName());
+            if (failure != null) {
+                sb.append(",\"failure\":");
+                writeJsonString(sb, failure.toString());
+            } else {
+                sb.append(",\"cases\":").append(cases);
+            }
+            sb.append(",\"nanos\":").append(nanos);
+            sb.append(",\"children\":");
+            writeJsonArray(sb, children);
+            sb.append('}');
+        }
+
+    }
+
+}
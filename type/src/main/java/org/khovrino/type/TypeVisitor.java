@@ -0,0 +1,39 @@
+package org.khovrino.type;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Objects;
+
+public interface TypeVisitor<R> {
+
+    R visitClass(Class<?> type);
+
+    R visitParameterized(ParameterizedType type);
+
+    R visitWildcard(WildcardType type);
+
+    R visitArray(GenericArrayType type);
+
+    R visitVariable(TypeVariable<?> type);
+
+    default R visit(Type type) {
+        Objects.requireNonNull(type);
+        if (type instanceof Class<?> clazz) {
+            return visitClass(clazz);
+        } else if (type instanceof ParameterizedType paramType) {
+            return visitParameterized(paramType);
+        } else if (type instanceof WildcardType wildcardType) {
+            return visitWildcard(wildcardType);
+        } else if (type instanceof GenericArrayType arrayType) {
+            return visitArray(arrayType);
+        } else if (type instanceof TypeVariable<?> variable) {
+            return visitVariable(variable);
+        } else {
+            throw new IllegalArgumentException(type.getClass().getName());
+        }
+    }
+
+}
@@ -0,0 +1,221 @@
+package org.khovrino.type;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+public final class TypeWarmup {
+
+    public static TypeWarmup create() {
+        return new TypeWarmup();
+    }
+
+    private final List<Task> tasks = new ArrayList<>();
+
+    private TypeWarmup() {}
+
+    public TypeWarmup add(Class<?> clazz) {
+        Objects.requireNonNull(clazz);
+        tasks.add(new Task(clazz, null));
+        return this;
+    }
+
+    public TypeWarmup add(Type type) {
+        Objects.requireNonNull(type);
+        tasks.add(new Task(type, null));
+        return this;
+    }
+
+    public TypeWarmup add(TypeToken<?> token) {
+        return add(token.javaType());
+    }
+
+    public TypeWarmup add(Type type, Type mask) {
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(mask);
+        tasks.add(new Task(type, mask));
+        return this;
+    }
+
+    public TypeWarmup add(TypeToken<?> token, TypeToken<?> mask) {
+        return add(token.javaType(), mask.javaType());
+    }
+
+    public Report run() {
+        return start(ForkJoinPool.commonPool(), null).join();
+    }
+
+    public CompletableFuture<Report> start(Executor executor, Listener listener) {
+        Objects.requireNonNull(executor);
+        List<Task> batch = List.copyOf(tasks);
+        int total = batch.size();
+        AtomicInteger completed = new AtomicInteger();
+        Lock progress = new ReentrantLock();
+        AtomicLong busyNanos = new AtomicLong();
+        Map<Task, RuntimeException> failures = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[total];
+        for (int i = 0; i < total; i++) {
+            Task task = batch.get(i);
+            futures[i] = CompletableFuture.runAsync(() -> {
+                long taskStart = System.nanoTime();
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    failures.put(task, e);
+                } finally {
+                    busyNanos.addAndGet(System.nanoTime() - taskStart);
+                    if (listener != null) {
+                        progress.lock();
+                        try {
+                            listener.progress(completed.incrementAndGet(), total, task.type);
+                        } finally {
+                            progress.unlock();
+                        }
+                    }
+                }
+            }, executor);
+        }
+        return CompletableFuture.allOf(futures).thenApply(ignored -> {
+            Map<Type, RuntimeException> failed = new LinkedHashMap<>();
+            for (Task task : batch) {
+                RuntimeException failure = failures.get(task);
+                if (failure != null) {
+                    failed.putIfAbsent(task.type, failure);
+                }
+            }
+            return new Report(total, System.nanoTime() - start, busyNanos.get(), failed);
+        });
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+
+        void progress(int completed, int total, Type type);
+
+    }
+
+    public static final class Report {
+
+        private final int tasks;
+        private final long elapsedNanos;
+        private final long busyNanos;
+        private final Map<Type, RuntimeException> failures;
+
+        private Report(int tasks, long elapsedNanos, long busyNanos, Map<Type, RuntimeException> failures) {
+            this.tasks = tasks;
+            this.elapsedNanos = elapsedNanos;
+            this.busyNanos = busyNanos;
+            this.failures = Collections.unmodifiableMap(failures);
+        }
+
+        public int tasks() {
+            return tasks;
+        }
+
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long busyNanos() {
+            return busyNanos;
+        }
+
+        public Map<Type, RuntimeException> failures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d tasks, %d failed, %d ms elapsed, %d ms busy", tasks, failures.size(),
+                    elapsedNanos / 1_000_000, busyNanos / 1_000_000);
+        }
+
+    }
+
+    private static final class Task {
+
+        private final Type type;
+        private final Type mask;
+
+        private Task(Type type, Type mask) {
+            this.type = type;
+            this.mask = mask;
+        }
+
+        private void run() {
+            Type subject = type instanceof Class<?> clazz ? ClassHierarchy.of(clazz).unresolved() : type;
+            if (JavaType.isPrimitive(subject)) {
+                return;
+            }
+            Class<?> raw = JavaType.rawType(subject);
+            while (raw.isArray()) {
+                raw = raw.getComponentType();
+            }
+            ClassHierarchy rawHierarchy = ClassHierarchy.of(raw);
+            Deque<Class<?>> pending = new ArrayDeque<>();
+            Set<Class<?>> visited = new HashSet<>();
+            pending.add(raw);
+            while (!pending.isEmpty()) {
+                Class<?> ancestor = pending.poll();
+                if (visited.add(ancestor)) {
+                    ClassHierarchy hierarchy = ClassHierarchy.of(ancestor);
+                    ifApplicable(() -> rawHierarchy.supertypeTemplate(ancestor));
+                    if (ancestor.getSuperclass() != null) {
+                        pending.add(ancestor.getSuperclass());
+                    }
+                    for (int i = 0; i < hierarchy.interfaceCount(); i++) {
+                        pending.add(hierarchy.rawInterface(i));
+                    }
+                }
+            }
+            JavaType.supertypes(subject);
+            if (mask != null) {
+                JavaType.downgrade(subject, JavaType.rawType(mask));
+                JavaType.transform(subject, mask, mask);
+            }
+            if (JavaType.isArray(subject)) {
+                return;
+            }
+            MethodInference.prepare(raw);
+            Type key = type instanceof Class<?> clazz && !ClassHierarchy.of(clazz).isRaw() ? type : subject;
+            TypeToken<?> token = TypeToken.of(key);
+            if (Collection.class.isAssignableFrom(raw) || Map.class.isAssignableFrom(raw)) {
+                ifApplicable(() -> CollectionFactory.of(token));
+            }
+            if (raw.isInterface()) {
+                ifApplicable(() -> FunctionalSignature.of(key));
+            } else if (!Modifier.isAbstract(raw.getModifiers())) {
+                ifApplicable(() -> TypeLayout.of(token));
+            }
+        }
+
+        private static void ifApplicable(Runnable warmup) {
+            try {
+                warmup.run();
+            } catch (IllegalArgumentException e) {
+                return;
+            }
+        }
+
+    }
+
+}
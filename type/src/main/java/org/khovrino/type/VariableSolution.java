@@ -1,87 +1,108 @@
 package org.khovrino.type;
 
 import java.lang.reflect.Type;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.Arrays;
 
 final class VariableSolution {
 
-    static VariableSolution empty() {
-        return new VariableSolution();
-    }
+    private static final Type[] NO_TYPES = new Type[0];
 
     static VariableSolution upperBound(Type upperBound) {
-        return VariableSolution.empty().addUpperBound(upperBound);
+        return new VariableSolution(new Type[] { upperBound }, NO_TYPES);
     }
 
     static VariableSolution lowerBound(Type lowerBound) {
-        return VariableSolution.empty().addLowerBound(lowerBound);
+        return new VariableSolution(NO_TYPES, new Type[] { lowerBound });
     }
 
-    private final Set<Type> upperBounds = new LinkedHashSet<>();
-    private final Set<Type> lowerBounds = new LinkedHashSet<>();
+    private final Type[] upperBounds;
+    private final Type[] lowerBounds;
+    private final int hash;
+
+    private VariableSolution(Type[] upperBounds, Type[] lowerBounds) {
+        this.upperBounds = upperBounds;
+        this.lowerBounds = lowerBounds;
+        this.hash = setHashCode(upperBounds) ^ setHashCode(lowerBounds);
+    }
 
-    private VariableSolution() {}
+    private static Type[] addUpperBound(Type[] bounds, Type newType) {
+        boolean[] useless = null;
+        for (int i = 0; i < bounds.length; i++) {
+            if (JavaType.testExtends(bounds[i], newType)) {
+                return bounds;
+            } else if (JavaType.testExtends(newType, bounds[i])) {
+                if (useless == null) {
+                    useless = new boolean[bounds.length];
+                }
+                useless[i] = true;
+            }
+        }
+        return append(bounds, useless, newType);
+    }
 
-    private VariableSolution addUpperBound(Type newType) {
-        Set<Type> useless = new HashSet<>();
-        for (Type type : upperBounds) {
-            if (JavaType.testExtends(type, newType)) {
-                return this;
-            } else if (JavaType.testExtends(newType, type)) {
-                useless.add(type);
+    private static Type[] addLowerBound(Type[] bounds, Type newType) {
+        boolean[] useless = null;
+        for (int i = 0; i < bounds.length; i++) {
+            if (JavaType.testExtends(newType, bounds[i])) {
+                return bounds;
+            } else if (JavaType.testExtends(bounds[i], newType)) {
+                if (useless == null) {
+                    useless = new boolean[bounds.length];
+                }
+                useless[i] = true;
             }
         }
-        upperBounds.removeAll(useless);
-        upperBounds.add(newType);
-        return this;
+        return append(bounds, useless, newType);
     }
 
-    private VariableSolution addLowerBound(Type newType) {
-        Set<Type> useless = new HashSet<>();
-        for (Type type : lowerBounds) {
-            if (JavaType.testExtends(newType, type)) {
-                return this;
-            } else if (JavaType.testExtends(type, newType)) {
-                useless.add(type);
+    private static Type[] append(Type[] bounds, boolean[] useless, Type newType) {
+        Type[] result = new Type[bounds.length + 1];
+        int size = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            if (useless == null || !useless[i]) {
+                result[size++] = bounds[i];
             }
         }
-        lowerBounds.removeAll(useless);
-        lowerBounds.add(newType);
-        return this;
+        result[size++] = newType;
+        return size == result.length ? result : Arrays.copyOf(result, size);
     }
 
-    void add(VariableSolution that) {
+    VariableSolution add(VariableSolution that) {
+        if (that == this) {
+            return this;
+        }
+        Type[] upper = this.upperBounds;
+        Type[] lower = this.lowerBounds;
         for (Type type : that.upperBounds) {
-            addUpperBound(type);
+            upper = addUpperBound(upper, type);
         }
         for (Type type : that.lowerBounds) {
-            addLowerBound(type);
+            lower = addLowerBound(lower, type);
+        }
+        if (upper == this.upperBounds && lower == this.lowerBounds) {
+            return this;
+        } else {
+            return new VariableSolution(upper, lower);
         }
     }
 
     Type root() {
         // more about inference
         // https://docs.oracle.com/javase/specs/jls/se8/html/jls-18.html
-        if (lowerBounds.size() == 1) {
-            for (Type exact : lowerBounds) {
-                return exact;
-            }
-        } else if (upperBounds.size() == 1) {
-            for (Type exact : upperBounds) {
-                return exact;
-            }
-        } else if (upperBounds.isEmpty()) {
+        if (lowerBounds.length == 1) {
+            return lowerBounds[0];
+        } else if (upperBounds.length == 1) {
+            return upperBounds[0];
+        } else if (upperBounds.length == 0) {
             return Object.class;
         }
-        throw new IllegalStateException(
-                String.format("Unresolvable bounds: extends %s and super %s", upperBounds, lowerBounds));
+        throw new IllegalStateException(String.format("Unresolvable bounds: extends %s and super %s",
+                Arrays.toString(upperBounds), Arrays.toString(lowerBounds)));
     }
 
     @Override
     public int hashCode() {
-        return upperBounds.hashCode() ^ lowerBounds.hashCode();
+        return hash;
     }
 
     @Override
@@ -89,7 +110,8 @@ final class VariableSolution {
         if (obj == this) {
             return true;
         } else if (obj instanceof VariableSolution that) {
-            return this.upperBounds.equals(that.upperBounds) && this.lowerBounds.equals(that.lowerBounds);
+            return this.hash == that.hash && setEquals(this.upperBounds, that.upperBounds)
+                    && setEquals(this.lowerBounds, that.lowerBounds);
         } else {
             return false;
         }
@@ -100,4 +122,27 @@ final class VariableSolution {
         return root().getTypeName();
     }
 
+    private static int setHashCode(Type[] types) {
+        int h = 0;
+        for (Type type : types) {
+            h += type.hashCode();
+        }
+        return h;
+    }
+
+    private static boolean setEquals(Type[] a, Type[] b) {
+        if (a.length != b.length) {
+            return false;
+        }
+        outer: for (Type x : a) {
+            for (Type y : b) {
+                if (x.equals(y)) {
+                    continue outer;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
 }
@@ -18,6 +18,8 @@ final class WildcardTypeImpl implements WildcardType {
 
     private final Type[] lowerBounds;
     private final Type[] upperBounds;
+    private TypeTerm term;
+    private int hash;
 
     WildcardTypeImpl(Type[] lowerBounds, Type[] upperBounds) {
         super();
@@ -35,6 +37,15 @@ final class WildcardTypeImpl implements WildcardType {
         return Arrays.copyOf(lowerBounds, lowerBounds.length);
     }
 
+    TypeTerm term() {
+        TypeTerm t = term;
+        if (t == null) {
+            t = TypeTerm.convert(this);
+            term = t;
+        }
+        return t;
+    }
+
     @Override
     public String toString() {
         Type[] bounds;
@@ -80,7 +91,12 @@ final class WildcardTypeImpl implements WildcardType {
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(lowerBounds) ^ Arrays.hashCode(upperBounds);
+        int h = hash;
+        if (h == 0) {
+            h = Arrays.hashCode(lowerBounds) ^ Arrays.hashCode(upperBounds);
+            hash = h;
+        }
+        return h;
     }
 
 }
@@ -0,0 +1,114 @@
+package org.khovrino.type;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class ColdStartBenchmark {
+
+    @Param({ "cold", "primed", "warm" })
+    public String jvm;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (jvm.equals("primed")) {
+            TypeToken<Set<Long>> token = new TypeToken<>() {};
+            token.list().mapTo(TypeToken.of(Double.class));
+            TypeToken.collectionElement(token);
+            JavaType.shift(new TypeToken<LinkedList<Long>>() {}.javaType(), Collection.class);
+        } else if (jvm.equals("warm")) {
+            anonymousToken(null);
+            listAndMapTo(null);
+            collectionElement(null);
+            shift(null);
+            genericSignatures(null);
+        }
+    }
+
+    @Benchmark
+    public Object anonymousToken(ClassLoading classLoading) {
+        return new TypeToken<Map<String, List<Integer>>>() {};
+    }
+
+    @Benchmark
+    public Object listAndMapTo(ClassLoading classLoading) {
+        TypeToken<Map<String, List<Integer>>> token = new TypeToken<>() {};
+        return token.list().mapTo(TypeToken.of(Integer.class));
+    }
+
+    @Benchmark
+    public Object collectionElement(ClassLoading classLoading) {
+        return TypeToken.collectionElement(new TypeToken<List<Map<String, List<Integer>>>>() {});
+    }
+
+    @Benchmark
+    public Object shift(ClassLoading classLoading) {
+        return JavaType.shift(new TypeToken<ArrayList<String>>() {}.javaType(), Collection.class);
+    }
+
+    @Benchmark
+    public Object genericSignatures(ClassLoading classLoading) {
+        List<Object> parsed = new ArrayList<>();
+        parsed.add(new TypeToken<ArrayList<String>>() {}.getClass().getGenericSuperclass());
+        for (Class<?> c : List.of(ArrayList.class, AbstractList.class, AbstractCollection.class, List.class,
+                Collection.class, Iterable.class, Map.class)) {
+            Collections.addAll(parsed, (Type[]) c.getTypeParameters());
+            parsed.add(c.getGenericSuperclass());
+            Collections.addAll(parsed, c.getGenericInterfaces());
+        }
+        return parsed;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ClassLoading {
+
+        private final ClassLoadingMXBean bean = ManagementFactory.getClassLoadingMXBean();
+        private long loadedBefore;
+
+        public long classesLoaded;
+
+        @Setup(Level.Iteration)
+        public void before() {
+            loadedBefore = bean.getTotalLoadedClassCount();
+        }
+
+        @TearDown(Level.Iteration)
+        public void after() {
+            classesLoaded = bean.getTotalLoadedClassCount() - loadedBefore;
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.junit.jupiter.api.Test;
+
+class CollectionFactoryTest {
+
+    enum Color {
+        RED, GREEN
+    }
+
+    @Test
+    void choosesDefaultImplementations() {
+        assertEquals(ArrayList.class, CollectionFactory.of(new TypeToken<List<String>>() {}).implementation());
+        assertEquals(TreeMap.class,
+                CollectionFactory.of(new TypeToken<NavigableMap<String, Integer>>() {}).implementation());
+        assertEquals(ArrayList.class, JavaType.newInstance(new TypeToken<List<String>>() {}.javaType()).getClass());
+    }
+
+    @Test
+    void usesEnumSetOnlyForSets() {
+        assertEquals(EnumSet.class, CollectionFactory.of(new TypeToken<Set<Color>>() {}).implementation());
+        assertEquals(EnumMap.class, CollectionFactory.of(new TypeToken<Map<Color, String>>() {}).implementation());
+        Collection<Color> colors = CollectionFactory.of(new TypeToken<Collection<Color>>() {}).create();
+        colors.add(Color.RED);
+        colors.add(Color.RED);
+        assertEquals(2, colors.size());
+        AbstractCollection<Color> abstractColors = CollectionFactory
+                .of(new TypeToken<AbstractCollection<Color>>() {}).create();
+        abstractColors.add(Color.GREEN);
+        abstractColors.add(Color.GREEN);
+        assertEquals(2, abstractColors.size());
+    }
+
+    @Test
+    void sizeHintIsNotABound() {
+        CollectionFactory<List<String>> lists = CollectionFactory.of(new TypeToken<List<String>>() {});
+        assertTrue(lists.isPresized());
+        List<String> list = lists.create(1);
+        list.add("a");
+        list.add("b");
+        assertEquals(2, list.size());
+        Queue<String> queue = CollectionFactory.of(new TypeToken<BlockingQueue<String>>() {}).create(1);
+        queue.add("a");
+        queue.add("b");
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void rejectsCapacityBoundImplementations() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CollectionFactory.of(new TypeToken<ArrayBlockingQueue<String>>() {}));
+    }
+
+    @Test
+    void rejectsNegativeHints() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CollectionFactory.of(new TypeToken<List<String>>() {}).create(-1));
+    }
+
+}
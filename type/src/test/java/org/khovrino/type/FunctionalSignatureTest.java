@@ -0,0 +1,89 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.invoke.MethodType;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+class FunctionalSignatureTest {
+
+    abstract static class Labeler<T> implements Function<T, String> {
+    }
+
+    static class IntegerLabeler extends Labeler<Integer> {
+        @Override
+        public String apply(Integer value) {
+            return value.toString();
+        }
+    }
+
+    interface NameSupplier extends Supplier<CharSequence> {
+        @Override
+        String get();
+    }
+
+    interface Transformer<T> extends Function<T, T> {
+        @Override
+        T apply(T value);
+    }
+
+    interface Pair {
+        void first();
+
+        void second();
+    }
+
+    @Test
+    void resolvesWildcardArgumentsToTheirBounds() {
+        FunctionalSignature signature = FunctionalSignature.of(
+                new TypeToken<Function<? super Integer, ? extends String>>() {});
+        assertEquals(new TypeToken<Function<Integer, String>>() {}.javaType(), signature.functionalInterface());
+        assertEquals("apply", signature.method().getName());
+        assertEquals(List.of(Integer.class), signature.parameterTypes());
+        assertEquals(String.class, signature.returnType());
+    }
+
+    @Test
+    void resolvesSamImplementedThroughASuperclass() {
+        FunctionalSignature signature = FunctionalSignature.of(IntegerLabeler.class);
+        assertEquals(new TypeToken<Function<Integer, String>>() {}.javaType(), signature.functionalInterface());
+        assertEquals(List.of(Integer.class), signature.parameterTypes());
+        assertEquals(String.class, signature.returnType());
+    }
+
+    @Test
+    void overridesCollapseToASingleSam() {
+        FunctionalSignature names = FunctionalSignature.of(NameSupplier.class);
+        assertEquals(NameSupplier.class, names.method().getDeclaringClass());
+        assertEquals(String.class, names.returnType());
+        FunctionalSignature transformer = FunctionalSignature.of(new TypeToken<Transformer<Long>>() {});
+        assertEquals(Transformer.class, transformer.method().getDeclaringClass());
+        assertEquals(List.of(Long.class), transformer.parameterTypes());
+        assertEquals(Long.class, transformer.returnType());
+    }
+
+    @Test
+    void nonFunctionalTypesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> FunctionalSignature.of(Pair.class));
+        assertThrows(IllegalArgumentException.class, () -> FunctionalSignature.of(new TypeToken<List<String>>() {}));
+        assertThrows(IllegalArgumentException.class, () -> FunctionalSignature.of(String.class));
+        assertThrows(IllegalArgumentException.class, () -> FunctionalSignature.of(int.class));
+    }
+
+    @Test
+    void methodTypeErasesResolvedTypes() {
+        FunctionalSignature signature = FunctionalSignature.of(new TypeToken<Comparator<List<String>>>() {});
+        assertEquals(List.of(new TypeToken<List<String>>() {}.javaType(), new TypeToken<List<String>>() {}.javaType()),
+                signature.parameterTypes());
+        assertEquals(MethodType.methodType(int.class, List.class, List.class), signature.methodType());
+        assertEquals(MethodType.methodType(CharSequence.class, CharSequence.class),
+                FunctionalSignature.of(new TypeToken<Transformer<CharSequence>>() {}).methodType());
+    }
+
+}
@@ -0,0 +1,107 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class JavaTypeTest {
+
+    @Test
+    void warmGroundTestExtendsDoesNotAllocate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        Type subType = new TypeToken<ArrayList<String>>() {}.javaType();
+        Type superType = new TypeToken<List<? extends CharSequence>>() {}.javaType();
+        boolean result = true;
+        for (int i = 0; i < 10_000; i++) {
+            result &= JavaType.testExtends(subType, superType);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            result &= JavaType.testExtends(subType, superType);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(result);
+        assertTrue(allocated < 10_000, String.format("%d bytes allocated by 10000 calls", allocated));
+    }
+
+    private static <K> Type[] keysToList() {
+        return new Type[] { new TypeToken<Map<K, ?>>() {}.javaType(), new TypeToken<List<K>>() {}.javaType() };
+    }
+
+    @Test
+    void equalTypesConvertToEqualTerms() {
+        Type first = new TypeToken<Map<String, List<? extends Number>>>() {}.javaType();
+        Type second = new ParameterizedTypeImpl(null, Map.class, String.class,
+                new ParameterizedTypeImpl(null, List.class, WildcardTypeImpl.ext(Number.class)));
+        TypeTerm firstTerm = TypeTerm.convert(first);
+        TypeTerm secondTerm = TypeTerm.convert(second);
+        assertEquals(firstTerm, secondTerm);
+        assertEquals(firstTerm.hashCode(), secondTerm.hashCode());
+        assertEquals(first, secondTerm.toType());
+        assertNotEquals(firstTerm, TypeTerm.convert(new TypeToken<Map<String, List<Number>>>() {}.javaType()));
+    }
+
+    @Test
+    void repeatedTransformsAreServedFromTheResultCache() {
+        Type hashMap = new TypeToken<HashMap<String, Integer>>() {}.javaType();
+        Type[] masks = keysToList();
+        Type mapMask = masks[0];
+        Type listMask = masks[1];
+        Type first = JavaType.transform(hashMap, mapMask, listMask);
+        assertEquals(new TypeToken<List<String>>() {}.javaType(), first);
+        assertSame(first, JavaType.transform(hashMap, mapMask, listMask));
+    }
+
+    @Test
+    void repeatedUpgradesAreServedFromTheResultCache() {
+        Type collection = new TypeToken<Collection<String>>() {}.javaType();
+        Type first = JavaType.upgrade(collection, ArrayList.class);
+        assertEquals(new TypeToken<ArrayList<String>>() {}.javaType(), first);
+        assertSame(first, JavaType.upgrade(collection, ArrayList.class));
+        assertSame(JavaType.upgrade(collection, JavaType.unresolved(List.class)),
+                JavaType.upgrade(collection, JavaType.unresolved(List.class)));
+    }
+
+    @Test
+    void resultsAreWeighedByTheirTypes() {
+        long budget = TypeCache.maxWeight();
+        try {
+            TypeCache.setMaxWeight(0);
+            TypeCache.setMaxWeight(8);
+            Type hashMap = new TypeToken<HashMap<String, Integer>>() {}.javaType();
+            Type[] masks = keysToList();
+            Type first = JavaType.transform(hashMap, masks[0], masks[1]);
+            assertEquals(first, JavaType.transform(hashMap, masks[0], masks[1]));
+            assertNotSame(first, JavaType.transform(hashMap, masks[0], masks[1]));
+            assertTrue(TypeCache.totalWeight() <= 8);
+        } finally {
+            TypeCache.setMaxWeight(budget);
+        }
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        Type objects = new TypeToken<Collection<Object>>() {}.javaType();
+        assertThrows(IllegalArgumentException.class, () -> JavaType.upgrade(objects, Map.class));
+        assertThrows(IllegalArgumentException.class, () -> JavaType.upgrade(objects, Map.class));
+    }
+
+}
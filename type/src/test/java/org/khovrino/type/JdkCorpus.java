@@ -0,0 +1,188 @@
+package org.khovrino.type;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+final class JdkCorpus {
+
+    private static final Type[] CANDIDATES = { String.class, Integer.class, Object.class, TimeUnit.class,
+            new ParameterizedTypeImpl(null, List.class, String.class) };
+
+    private static volatile JdkCorpus instance;
+
+    static JdkCorpus get() {
+        JdkCorpus corpus = instance;
+        if (corpus == null) {
+            corpus = new JdkCorpus();
+            instance = corpus;
+        }
+        return corpus;
+    }
+
+    private final List<Class<?>> classes;
+    private final List<Type> types;
+    private final List<Query> queries;
+
+    private JdkCorpus() {
+        this.classes = Collections.unmodifiableList(loadClasses());
+        List<Type> types = new ArrayList<>();
+        List<Query> queries = new ArrayList<>();
+        for (Class<?> clazz : classes) {
+            Type type = instantiate(clazz);
+            if (type == null) {
+                continue;
+            }
+            types.add(type);
+            for (Class<?> ancestor : ClassHierarchy.of(clazz).ancestors()) {
+                if (ancestor != clazz) {
+                    queries.add(new Query(type, clazz, ancestor));
+                }
+            }
+        }
+        this.types = Collections.unmodifiableList(types);
+        this.queries = Collections.unmodifiableList(queries);
+    }
+
+    List<Class<?>> classes() {
+        return classes;
+    }
+
+    List<Type> types() {
+        return types;
+    }
+
+    List<Query> queries() {
+        return queries;
+    }
+
+    private static List<Class<?>> loadClasses() {
+        FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+        Module base = Object.class.getModule();
+        List<Class<?>> result = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(jrt.getPath("/modules/java.base"))) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                String file = path.toString();
+                if (!file.endsWith(".class") || file.endsWith("module-info.class")) {
+                    continue;
+                }
+                String name = file.substring("/modules/java.base/".length(), file.length() - 6).replace('/', '.');
+                int dot = name.lastIndexOf('.');
+                if (dot < 0 || !base.isExported(name.substring(0, dot))) {
+                    continue;
+                }
+                Class<?> clazz;
+                try {
+                    clazz = Class.forName(name, false, JdkCorpus.class.getClassLoader());
+                } catch (ClassNotFoundException | LinkageError e) {
+                    continue;
+                }
+                if (isVisible(clazz)) {
+                    result.add(clazz);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        result.sort((c1, c2) -> c1.getName().compareTo(c2.getName()));
+        return result;
+    }
+
+    private static boolean isVisible(Class<?> clazz) {
+        for (Class<?> c = clazz; c != null; c = c.getDeclaringClass()) {
+            if (!Modifier.isPublic(c.getModifiers()) || c.isAnonymousClass() || c.isSynthetic()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Type instantiate(Class<?> clazz) {
+        Type unresolved = ClassHierarchy.of(clazz).unresolved();
+        if (!(unresolved instanceof ParameterizedType)) {
+            return clazz;
+        }
+        Map<TypeVariable<?>, Type> variables = JavaType.typeArguments(unresolved);
+        Map<TypeVariable<?>, Type> arguments = new HashMap<>();
+        for (TypeVariable<?> variable : variables.keySet()) {
+            Type argument = null;
+            for (Type candidate : CANDIDATES) {
+                arguments.put(variable, candidate);
+                if (satisfiesBounds(variable, arguments)) {
+                    argument = candidate;
+                    break;
+                }
+            }
+            if (argument == null) {
+                return null;
+            }
+        }
+        return JavaType.replace(unresolved, arguments);
+    }
+
+    private static boolean satisfiesBounds(TypeVariable<?> variable, Map<TypeVariable<?>, Type> arguments) {
+        for (Type bound : variable.getBounds()) {
+            Type resolved = JavaType.replace(bound, arguments);
+            if (!TypeTerm.of(resolved).ground()
+                    || !JavaType.solveExtends(arguments.get(variable), resolved, SolutionMode.IDENTITY).isIdentity()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static final class Query {
+
+        private final Type subType;
+        private final Class<?> subClass;
+        private final Class<?> superClass;
+
+        private Query(Type subType, Class<?> subClass, Class<?> superClass) {
+            this.subType = subType;
+            this.subClass = subClass;
+            this.superClass = superClass;
+        }
+
+        Type subType() {
+            return subType;
+        }
+
+        Class<?> subClass() {
+            return subClass;
+        }
+
+        Class<?> superClass() {
+            return superClass;
+        }
+
+        Type subTypeMask() {
+            return ClassHierarchy.of(subClass).unresolved();
+        }
+
+        Type superTypeMask() {
+            return ClassHierarchy.of(subClass).supertypeTemplate(superClass);
+        }
+
+        @Override
+        public String toString() {
+            return subType.getTypeName() + " -> " + superClass.getName();
+        }
+
+    }
+
+}
@@ -0,0 +1,126 @@
+package org.khovrino.type;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JdkCorpusBenchmark {
+
+    private Type[] subTypes;
+    private Class<?>[] subClasses;
+    private Type[] subTypeMasks;
+    private Class<?>[] superClasses;
+    private Type[] superTypes;
+    private Type[] superTypeMasks;
+    private int[] upgradable;
+    private TypeTable table;
+    private int[] subIds;
+    private int[] superIds;
+
+    @Setup
+    public void setUp() {
+        List<JdkCorpus.Query> queries = JdkCorpus.get().queries();
+        int n = queries.size();
+        subTypes = new Type[n];
+        subClasses = new Class<?>[n];
+        subTypeMasks = new Type[n];
+        superClasses = new Class<?>[n];
+        superTypes = new Type[n];
+        superTypeMasks = new Type[n];
+        table = new TypeTable();
+        subIds = new int[n];
+        superIds = new int[n];
+        List<Integer> upgradable = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            JdkCorpus.Query query = queries.get(i);
+            subTypes[i] = query.subType();
+            subClasses[i] = query.subClass();
+            subTypeMasks[i] = query.subTypeMask();
+            superClasses[i] = query.superClass();
+            superTypes[i] = JavaType.downgrade(query.subType(), query.superClass());
+            superTypeMasks[i] = query.superTypeMask();
+            subIds[i] = table.intern(subTypes[i]);
+            superIds[i] = table.intern(superTypes[i]);
+            try {
+                JavaType.upgrade(superTypes[i], subClasses[i]);
+                upgradable.add(i);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+        }
+        this.upgradable = upgradable.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Benchmark
+    public void testExtends(Blackhole blackhole) {
+        for (int i = 0; i < subTypes.length; i++) {
+            blackhole.consume(JavaType.testExtends(subTypes[i], superTypes[i]));
+            blackhole.consume(JavaType.testExtends(superTypes[i], subTypes[i]));
+        }
+    }
+
+    @Benchmark
+    public void testExtendsSolver(Blackhole blackhole) {
+        for (int i = 0; i < subTypes.length; i++) {
+            blackhole.consume(JavaType.solveExtends(subTypes[i], superTypes[i], SolutionMode.IDENTITY).isIdentity());
+            blackhole.consume(JavaType.solveExtends(superTypes[i], subTypes[i], SolutionMode.IDENTITY).isIdentity());
+        }
+    }
+
+    @Benchmark
+    public void tableTestExtends(Blackhole blackhole) {
+        for (int i = 0; i < subIds.length; i++) {
+            blackhole.consume(table.testExtends(subIds[i], superIds[i]));
+            blackhole.consume(table.testExtends(superIds[i], subIds[i]));
+        }
+    }
+
+    @Benchmark
+    public void downgrade(Blackhole blackhole) {
+        for (int i = 0; i < subTypes.length; i++) {
+            blackhole.consume(JavaType.downgrade(subTypes[i], superClasses[i]));
+        }
+    }
+
+    @Benchmark
+    public void upgrade(Blackhole blackhole) {
+        for (int i : upgradable) {
+            blackhole.consume(JavaType.upgrade(superTypes[i], subClasses[i]));
+        }
+    }
+
+    @Benchmark
+    public void transform(Blackhole blackhole) {
+        for (int i = 0; i < subTypes.length; i++) {
+            blackhole.consume(JavaType.transform(subTypes[i], subTypeMasks[i], superTypeMasks[i]));
+        }
+    }
+
+    @Benchmark
+    public void shift(Blackhole blackhole) {
+        for (int i : upgradable) {
+            blackhole.consume(JavaType.shift(subTypes[i], superClasses[i]));
+            blackhole.consume(JavaType.shift(superTypes[i], subClasses[i]));
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+class JdkCorpusTest {
+
+    private final JdkCorpus corpus = JdkCorpus.get();
+    private final List<String> mismatches = new ArrayList<>();
+
+    @Test
+    void corpusCoversJavaBase() {
+        assertTrue(corpus.classes().size() > 1000, () -> corpus.classes().size() + " classes");
+        assertTrue(corpus.queries().size() > 2000, () -> corpus.queries().size() + " queries");
+    }
+
+    @Test
+    void downgradeAgreesAcrossEngines() {
+        TypeTable table = new TypeTable();
+        for (JdkCorpus.Query query : corpus.queries()) {
+            Type subType = query.subType();
+            Class<?> superClass = query.superClass();
+            Object downgraded = outcome(() -> JavaType.downgrade(subType, superClass));
+            compare(query, "walkSupertypes", downgraded,
+                    outcome(() -> JavaType.walkSupertypes(subType, query.subClass(), superClass)));
+            compare(query, "substitution", downgraded,
+                    outcome(() -> JavaType.replace(query.superTypeMask(), JavaType.typeArguments(subType))));
+            compare(query, "TypeTable", downgraded,
+                    outcome(() -> table.toType(table.downgrade(table.intern(subType), superClass))));
+        }
+        assertNoMismatches();
+    }
+
+    @Test
+    void testExtendsAgreesAcrossEngines() {
+        TypeTable table = new TypeTable();
+        for (JdkCorpus.Query query : corpus.queries()) {
+            Type subType = query.subType();
+            Type superType = JavaType.downgrade(subType, query.superClass());
+            compare(query, "downgrade extends", true, JavaType.testExtends(subType, superType));
+            for (Type[] pair : pairs(subType, superType)) {
+                Object fast = outcome(() -> JavaType.testExtends(pair[0], pair[1]));
+                compare(query, "solver " + pair[0].getTypeName() + " <: " + pair[1].getTypeName(), fast,
+                        outcome(() -> JavaType.solveExtends(pair[0], pair[1], SolutionMode.IDENTITY).isIdentity()));
+                compare(query, "TypeTable " + pair[0].getTypeName() + " <: " + pair[1].getTypeName(), fast,
+                        outcome(() -> table.testExtends(table.intern(pair[0]), table.intern(pair[1]))));
+            }
+        }
+        assertNoMismatches();
+    }
+
+    @Test
+    void rawSupertypesFailAlikeOnBothLanes() {
+        Type comparableOfString = new ParameterizedTypeImpl(null, Comparable.class, String.class);
+        Type collectionOfString = new ParameterizedTypeImpl(null, Collection.class, String.class);
+        for (Type[] pair : List.of(new Type[] { RawComparable.class, comparableOfString },
+                new Type[] { RawList.class, collectionOfString })) {
+            String query = pair[0].getTypeName() + " <: " + pair[1].getTypeName();
+            IllegalArgumentException fast = assertThrows(IllegalArgumentException.class,
+                    () -> JavaType.testExtends(pair[0], pair[1]), query);
+            IllegalArgumentException solver = assertThrows(IllegalArgumentException.class,
+                    () -> JavaType.solveExtends(pair[0], pair[1], SolutionMode.IDENTITY), query);
+            assertEquals(solver.getMessage(), fast.getMessage(), query);
+        }
+        assertThrows(IllegalArgumentException.class, () -> JavaType.downgrade(RawList.class, List.class));
+    }
+
+    @SuppressWarnings("rawtypes")
+    abstract static class RawComparable implements Comparable {
+    }
+
+    @SuppressWarnings("rawtypes")
+    abstract static class RawList extends ArrayList {
+        private static final long serialVersionUID = 1L;
+    }
+
+    @Test
+    void multiTargetTestExtendsAgreesWithSingleTarget() {
+        List<Type> superTypes = new ArrayList<>();
+        for (JdkCorpus.Query query : corpus.queries()) {
+            Type superType = JavaType.downgrade(query.subType(), query.superClass());
+            superTypes.add(superType);
+            superTypes.add(perturb(superType));
+            if (superTypes.size() >= 256) {
+                break;
+            }
+        }
+        for (Type type : corpus.types()) {
+            BitSet bits = JavaType.testExtends(type, superTypes);
+            for (int i = 0; i < superTypes.size(); i++) {
+                if (bits.get(i) != JavaType.testExtends(type, superTypes.get(i))) {
+                    mismatches.add(type.getTypeName() + " <: " + superTypes.get(i).getTypeName());
+                }
+            }
+        }
+        assertNoMismatches();
+    }
+
+    @Test
+    void transformAndShiftAgreeWithDowngrade() {
+        for (JdkCorpus.Query query : corpus.queries()) {
+            Type subType = query.subType();
+            Object downgraded = outcome(() -> JavaType.downgrade(subType, query.superClass()));
+            compare(query, "transform", downgraded,
+                    outcome(() -> JavaType.transform(subType, query.subTypeMask(), query.superTypeMask())));
+            compare(query, "shift", downgraded, outcome(() -> JavaType.shift(subType, query.superClass())));
+        }
+        assertNoMismatches();
+    }
+
+    @Test
+    void upgradeInvertsDowngrade() {
+        for (JdkCorpus.Query query : corpus.queries()) {
+            Type superType = JavaType.downgrade(query.subType(), query.superClass());
+            Object upgraded = outcome(() -> JavaType.upgrade(superType, query.subClass()));
+            compare(query, "shift", upgraded, outcome(() -> JavaType.shift(superType, query.subClass())));
+            if (upgraded instanceof Type type) {
+                compare(query, "mask", upgraded, outcome(() -> JavaType.upgrade(superType, query.subTypeMask())));
+                compare(query, "round trip", superType, outcome(() -> JavaType.downgrade(type, query.superClass())));
+            }
+        }
+        assertNoMismatches();
+    }
+
+    private static List<Type[]> pairs(Type subType, Type superType) {
+        List<Type[]> pairs = new ArrayList<>();
+        pairs.add(new Type[] { subType, superType });
+        pairs.add(new Type[] { superType, subType });
+        pairs.add(new Type[] { subType, widen(superType) });
+        pairs.add(new Type[] { subType, perturb(superType) });
+        pairs.add(new Type[] { perturb(superType), superType });
+        return pairs;
+    }
+
+    private static Type widen(Type type) {
+        if (!(type instanceof ParameterizedType paramType)) {
+            return type;
+        }
+        Type[] args = paramType.getActualTypeArguments();
+        for (int i = 0; i < args.length; i++) {
+            args[i] = WildcardTypeImpl.ext(args[i]);
+        }
+        return new ParameterizedTypeImpl(paramType.getOwnerType(), (Class<?>) paramType.getRawType(), args);
+    }
+
+    private static Type perturb(Type type) {
+        if (!(type instanceof ParameterizedType paramType)) {
+            return type;
+        }
+        Type[] args = paramType.getActualTypeArguments();
+        args[0] = args[0].equals(Integer.class) ? String.class : Integer.class;
+        return new ParameterizedTypeImpl(paramType.getOwnerType(), (Class<?>) paramType.getRawType(), args);
+    }
+
+    private static Object outcome(Supplier<?> operation) {
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            return "throws " + e.getClass().getName();
+        }
+    }
+
+    private void compare(JdkCorpus.Query query, String engine, Object expected, Object actual) {
+        if (!Objects.equals(expected, actual)) {
+            mismatches.add(String.format("%s [%s] expected %s but was %s", query, engine, expected, actual));
+        }
+    }
+
+    private void assertNoMismatches() {
+        assertEquals(List.of(), mismatches.subList(0, Math.min(20, mismatches.size())),
+                () -> mismatches.size() + " mismatches");
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class MethodInferenceTest {
+
+    static <T extends CharSequence> TypeVariable<?> variable() throws NoSuchMethodException {
+        return MethodInferenceTest.class.getDeclaredMethod("variable").getTypeParameters()[0];
+    }
+
+    static void longs(long value, double ratio) {
+    }
+
+    @Test
+    void acceptsTypeVariableAtVarargsPosition() throws Exception {
+        TypeVariable<?> t = variable();
+        Method asList = Arrays.class.getMethod("asList", Object[].class);
+        assertEquals(new TypeToken<List<CharSequence>>() {}.javaType(),
+                MethodInference.infer(asList, t).returnType());
+        assertEquals(new TypeToken<List<CharSequence>>() {}.javaType(),
+                MethodInference.infer(asList, t, String.class).returnType());
+    }
+
+    @Test
+    void capturesWildcardArguments() throws Exception {
+        Type integers = new TypeToken<List<? extends Integer>>() {}.javaType();
+        WildcardType wildcard = (WildcardType) ((ParameterizedType) integers).getActualTypeArguments()[0];
+        Method singletonList = Collections.class.getMethod("singletonList", Object.class);
+        assertEquals(new TypeToken<List<Integer>>() {}.javaType(),
+                MethodInference.infer(singletonList, wildcard).returnType());
+        Method asList = Arrays.class.getMethod("asList", Object[].class);
+        assertEquals(new TypeToken<List<Integer>>() {}.javaType(),
+                MethodInference.infer(asList, wildcard).returnType());
+    }
+
+    @Test
+    void widensPrimitiveArguments() throws Exception {
+        Method abs = Math.class.getMethod("abs", long.class);
+        assertEquals(long.class, MethodInference.infer(abs, int.class).returnType());
+        assertEquals(long.class, MethodInference.infer(abs, Character.class).returnType());
+        Method longs = MethodInferenceTest.class.getDeclaredMethod("longs", long.class, double.class);
+        assertEquals(List.of(long.class, double.class),
+                MethodInference.infer(longs, byte.class, float.class).parameterTypes());
+    }
+
+    @Test
+    void rejectsNarrowingPrimitiveArguments() throws Exception {
+        Method abs = Math.class.getMethod("abs", int.class);
+        assertThrows(IllegalArgumentException.class, () -> MethodInference.infer(abs, long.class));
+        assertThrows(IllegalArgumentException.class, () -> MethodInference.infer(abs, boolean.class));
+        assertThrows(IllegalArgumentException.class, () -> MethodInference.infer(abs, Object.class));
+    }
+
+}
@@ -0,0 +1,69 @@
+package org.khovrino.type;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:-DoEscapeAnalysis")
+public class SolverBenchmark {
+
+    private Type arrayListOfString;
+    private Type listOfCharSequences;
+    private Type listOfMaps;
+    private Type collectionOfMaps;
+    private Type hashMap;
+    private Type mapMask;
+    private Type listMask;
+
+    @Setup
+    public <T> void setUp() {
+        arrayListOfString = new TypeToken<ArrayList<String>>() {}.javaType();
+        listOfCharSequences = new TypeToken<List<? extends CharSequence>>() {}.javaType();
+        listOfMaps = new TypeToken<List<Map<String, T>>>() {}.javaType();
+        collectionOfMaps = new TypeToken<Collection<? extends Map<String, T>>>() {}.javaType();
+        hashMap = new TypeToken<HashMap<String, Integer>>() {}.javaType();
+        mapMask = JavaType.unresolved(Map.class);
+        listMask = JavaType.unresolved(List.class);
+    }
+
+    @Benchmark
+    public boolean testExtendsGround() {
+        return JavaType.testExtends(arrayListOfString, listOfCharSequences);
+    }
+
+    @Benchmark
+    public boolean testExtendsVariables() {
+        return JavaType.testExtends(listOfMaps, collectionOfMaps);
+    }
+
+    @Benchmark
+    public Type transform() {
+        return JavaType.transform(hashMap, mapMask, listMask);
+    }
+
+    @Benchmark
+    public Type downgrade() {
+        return JavaType.downgrade(hashMap, Map.class);
+    }
+
+}
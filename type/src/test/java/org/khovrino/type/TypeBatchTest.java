@@ -0,0 +1,99 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+class TypeBatchTest {
+
+    interface Keyed<K> {
+    }
+
+    static class Pair<K, V> implements Keyed<K> {
+    }
+
+    static class Outer<T> {
+        class Inner<U> implements Keyed<T> {
+        }
+    }
+
+    private static List<Type> schema() {
+        List<Type> types = new ArrayList<>();
+        for (Class<?> key : List.of(String.class, Integer.class, Long.class)) {
+            for (Class<?> value : List.of(String.class, Integer.class, Long.class, Double.class)) {
+                types.add(new ParameterizedTypeImpl(null, Pair.class, key, value));
+                types.add(new ParameterizedTypeImpl(new ParameterizedTypeImpl(null, Outer.class, key),
+                        Outer.Inner.class, new ParameterizedTypeImpl(null, List.class, value)));
+            }
+        }
+        return types;
+    }
+
+    @Test
+    void matchesPerTypeResults() {
+        List<Type> types = schema();
+        TypeBatch batch = TypeBatch.of(types);
+        for (int i = 0; i < types.size(); i++) {
+            Type type = types.get(i);
+            assertEquals(JavaType.rawType(type), batch.rawTypes().get(i));
+            assertEquals(JavaType.typeArguments(type), batch.typeArguments().get(i));
+            assertEquals(JavaType.downgrade(type, Keyed.class), batch.downgrade(Keyed.class).get(i));
+            assertEquals(JavaType.simpleName(type), batch.simpleNames().get(i));
+        }
+    }
+
+    @Test
+    void sharesSubstitutionsAcrossTypesWithSharedArguments() {
+        List<Type> types = schema();
+        List<Type> downgraded = TypeBatch.of(types).downgrade(Keyed.class);
+        assertSame(downgraded.get(0), downgraded.get(2));
+        assertSame(downgraded.get(1), downgraded.get(3));
+        assertEquals(new ParameterizedTypeImpl(TypeBatchTest.class, Keyed.class, String.class), downgraded.get(1));
+    }
+
+    @Test
+    void parallelBatchesKeepInputOrder() {
+        List<Type> types = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            types.addAll(schema());
+        }
+        TypeBatch batch = TypeBatch.of(types);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TypeBatch parallel = batch.parallel(pool);
+            assertEquals(batch.simpleNames(), parallel.simpleNames());
+            assertEquals(batch.typeArguments(), parallel.typeArguments());
+            assertEquals(batch.downgrade(Keyed.class), parallel.downgrade(Keyed.class));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void mapAllowsNullResults() {
+        Map<Type, String> labels = Map.of(String.class, "s");
+        List<String> results = TypeBatch.of(String.class, Integer.class, String.class).map(labels::get);
+        assertEquals("s", results.get(0));
+        assertNull(results.get(1));
+        assertEquals("s", results.get(2));
+    }
+
+    @Test
+    void rejectsTypesOutsideTheHierarchy() {
+        TypeBatch batch = TypeBatch.of(new ParameterizedTypeImpl(null, List.class, String.class));
+        assertThrows(IllegalArgumentException.class, () -> batch.downgrade(Map.class));
+        assertEquals(List.of(new ParameterizedTypeImpl(null, Collection.class, String.class)),
+                batch.downgrade(Collection.class));
+    }
+
+}
@@ -0,0 +1,102 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class TypeCacheTest {
+
+    private static Class<?> isolatedCopy(ClassLoader parent) throws Exception {
+        URL location = TypeCacheTest.class.getProtectionDomain().getCodeSource().getLocation();
+        ClassLoader loader = new URLClassLoader(new URL[] { location }, parent) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (!name.equals(TypeCacheTest.class.getName())) {
+                    return super.loadClass(name, resolve);
+                }
+                synchronized (getClassLoadingLock(name)) {
+                    Class<?> loaded = findLoadedClass(name);
+                    return loaded != null ? loaded : findClass(name);
+                }
+            }
+        };
+        return loader.loadClass(TypeCacheTest.class.getName());
+    }
+
+    @Test
+    void typesSpanningSiblingLoadersAreNotCached() throws Exception {
+        Class<?> first = isolatedCopy(TypeCacheTest.class.getClassLoader());
+        Class<?> second = isolatedCopy(TypeCacheTest.class.getClassLoader());
+        ParameterizedTypeImpl key = new ParameterizedTypeImpl(null, Map.class, first, second);
+        assertNull(TypeCache.anchor(key));
+        TypeCache<String> cache = TypeCache.create("test.siblings");
+        AtomicInteger computations = new AtomicInteger();
+        cache.get(key, type -> "value" + computations.incrementAndGet());
+        cache.get(key, type -> "value" + computations.incrementAndGet());
+        assertEquals(2, computations.get());
+        assertNull(cache.getIfPresent(key));
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void typesAreAnchoredToTheDeepestLoader() throws Exception {
+        Class<?> local = TypeCacheTest.class;
+        Class<?> parent = isolatedCopy(local.getClassLoader());
+        Class<?> child = isolatedCopy(parent.getClassLoader());
+        assertSame(parent, TypeCache.anchor(new ParameterizedTypeImpl(null, Map.class, local, parent)));
+        assertSame(child, TypeCache.anchor(new ParameterizedTypeImpl(null, Map.class, child, parent)));
+        assertSame(child, TypeCache.anchor(new ParameterizedTypeImpl(null, Map.class, parent, child)));
+        assertSame(local, TypeCache.anchor(new ParameterizedTypeImpl(null, Map.class, String.class, local)));
+    }
+
+    @Test
+    void heavyKeysAreEvictedByWeight() {
+        long budget = TypeCache.maxWeight();
+        try {
+            TypeCache.setMaxWeight(0);
+            TypeCache.setMaxWeight(5);
+            TypeCache<String> cache = TypeCache.create("test.weight");
+            Type small = new ParameterizedTypeImpl(null, List.class, String.class);
+            Type large = new ParameterizedTypeImpl(null, Map.class, String.class,
+                    new ParameterizedTypeImpl(null, List.class, Integer.class));
+            cache.get(small, type -> "small");
+            assertEquals(2, TypeCache.totalWeight());
+            cache.get(large, type -> "large");
+            assertNull(cache.getIfPresent(small));
+            assertEquals("large", cache.getIfPresent(large));
+            assertEquals(4, TypeCache.totalWeight());
+        } finally {
+            TypeCache.setMaxWeight(budget);
+        }
+    }
+
+    @Test
+    void recentlyReadEntriesSurviveEviction() {
+        int budget = TypeCache.maxEntries();
+        try {
+            TypeCache.setMaxEntries(0);
+            TypeCache.setMaxEntries(2);
+            TypeCache<String> cache = TypeCache.create("test.eviction");
+            cache.get(String.class, type -> "string");
+            cache.get(Integer.class, type -> "integer");
+            cache.get(String.class, type -> "recomputed");
+            cache.get(Long.class, type -> "long");
+            assertEquals("string", cache.getIfPresent(String.class));
+            assertNull(cache.getIfPresent(Integer.class));
+            assertNotNull(cache.getIfPresent(Long.class));
+        } finally {
+            TypeCache.setMaxEntries(budget);
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class TypeContainerTest {
+
+    @Test
+    void equalTokensShareAnEntry() {
+        TypeContainer container = TypeContainer.create();
+        container.put(new TypeToken<List<String>>() {}, List.of("a"));
+        assertEquals(List.of("a"), container.get(new TypeToken<List<String>>() {}));
+        assertEquals(List.of("a"), container.get(TypeToken.of(new TypeToken<List<String>>() {}.javaType())));
+        assertNull(container.get(new TypeToken<List<Integer>>() {}));
+        assertEquals(1, container.size());
+    }
+
+    @Test
+    void readsOfMissingTokensLeaveTheContainerUnchanged() {
+        TypeContainer container = TypeContainer.create();
+        for (int i = 0; i < 100; i++) {
+            assertFalse(container.contains(TypeToken.of(new ParameterizedTypeImpl(null, Map.class, String.class,
+                    new ParameterizedTypeImpl(null, List.class, i % 2 == 0 ? Integer.class : Long.class)))));
+        }
+        container.put(TypeToken.of(String.class), "s");
+        assertEquals(Set.of(TypeToken.of(String.class)), container.keys());
+        assertEquals("s", container.get(String.class));
+    }
+
+    @Test
+    void keepsInsertionOrderAcrossRemovals() {
+        TypeContainer container = TypeContainer.create();
+        container.put(TypeToken.of(String.class), "s");
+        container.put(TypeToken.of(Integer.class), 1);
+        container.put(TypeToken.of(Long.class), 2L);
+        assertEquals(1, container.remove(TypeToken.of(Integer.class)));
+        assertNull(container.remove(TypeToken.of(Integer.class)));
+        assertEquals("s", container.put(TypeToken.of(String.class), "t"));
+        container.put(TypeToken.of(Integer.class), 3);
+        assertEquals(List.of(TypeToken.of(String.class), TypeToken.of(Long.class), TypeToken.of(Integer.class)),
+                new ArrayList<>(container.keys()));
+        assertEquals("TypeContainer{String=t, Long=2, Integer=3}", container.toString());
+    }
+
+    @Test
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    void rejectsValuesOfTheWrongType() {
+        TypeContainer container = TypeContainer.create();
+        assertThrows(IllegalArgumentException.class, () -> container.put((TypeToken) TypeToken.of(Integer.class), "x"));
+        assertThrows(NullPointerException.class, () -> container.put(TypeToken.of(Integer.class), null));
+        assertEquals(0, container.size());
+    }
+
+    @Test
+    void concurrentWritersAllLand() throws Exception {
+        TypeContainer container = TypeContainer.create();
+        List<TypeToken<?>> tokens = new ArrayList<>();
+        for (Class<?> raw : List.of(List.class, Collection.class, Iterable.class)) {
+            for (Class<?> arg : List.of(Integer.class, Long.class, Short.class, Byte.class, Double.class)) {
+                tokens.add(TypeToken.of(new ParameterizedTypeImpl(null, raw, arg)));
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (TypeToken<?> token : tokens) {
+                        container.putIfAbsent(cast(token), List.of());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(tokens.size(), container.size());
+        for (TypeToken<?> token : tokens) {
+            assertTrue(container.contains(token));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TypeToken<Object> cast(TypeToken<?> token) {
+        return (TypeToken<Object>) token;
+    }
+
+}
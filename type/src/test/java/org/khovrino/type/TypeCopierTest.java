@@ -0,0 +1,170 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class TypeCopierTest {
+
+    static class Node {
+        String name;
+        List<Node> children = new ArrayList<>();
+        Node parent;
+    }
+
+    static class Counter {
+        int count;
+
+        Counter(int count) {
+            this.count = count;
+        }
+
+        Counter() {
+        }
+    }
+
+    static class Fin {
+        public final int a;
+        public final Counter b;
+
+        Fin(int a, Counter b) {
+            this.a = a;
+            this.b = b;
+        }
+    }
+
+    static class FinWithoutConstructor {
+        public final int a = 1;
+    }
+
+    static class Holder {
+        Fin fin;
+        List<String> names;
+        Set<Counter> counters;
+        List<Node> nodes;
+        Map<String, Integer> counts;
+    }
+
+    record Pair<A, B>(A first, B second) {
+    }
+
+    record Link(String name, List<Link> next) {
+    }
+
+    @Test
+    void cyclesThroughRecordsAreRefused() {
+        List<Link> next = new ArrayList<>();
+        Link link = new Link("a", next);
+        next.add(link);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> TypeCopier.of(Link.class).copy(link));
+        assertTrue(e.getMessage().contains("cyclic"), e.getMessage());
+        Link acyclic = new Link("b", new ArrayList<>(List.of(new Link("c", List.of()))));
+        Link copy = TypeCopier.of(Link.class).copy(acyclic);
+        assertEquals(acyclic, copy);
+        assertNotSame(acyclic.next(), copy.next());
+    }
+
+    @Test
+    void copiesMutableGraphWithCycles() {
+        Node root = new Node();
+        root.name = "root";
+        Node child = new Node();
+        child.name = "child";
+        child.parent = root;
+        root.children.add(child);
+        Node copy = TypeCopier.of(Node.class).copy(root);
+        assertNotSame(root, copy);
+        assertEquals("child", copy.children.get(0).name);
+        assertNotSame(child, copy.children.get(0));
+        assertSame(copy, copy.children.get(0).parent);
+    }
+
+    @Test
+    void copiesFinalFieldsThroughConstructor() {
+        Fin fin = new Fin(5, new Counter(3));
+        Fin copy = TypeCopier.of(Fin.class).copy(fin);
+        assertEquals(5, copy.a);
+        assertEquals(3, copy.b.count);
+        assertNotSame(fin.b, copy.b);
+    }
+
+    @Test
+    void copiesNestedFinalFields() {
+        Holder holder = new Holder();
+        holder.fin = new Fin(7, new Counter());
+        assertEquals(7, TypeCopier.of(Holder.class).copy(holder).fin.a);
+    }
+
+    @Test
+    void rejectsFinalFieldsWithoutConstructorWhenPlanned() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> TypeCopier.of(FinWithoutConstructor.class));
+        assertEquals("Can't copy TypeCopierTest$FinWithoutConstructor: it has final fields and no constructor taking "
+                + "all of them", e.getMessage().replace(getClass().getPackageName() + ".", ""));
+    }
+
+    @Test
+    void sharesImmutableCollectionsOfLeaves() {
+        Holder holder = new Holder();
+        holder.names = List.of("a", "b");
+        holder.counts = Map.of("a", 1);
+        Holder copy = TypeCopier.of(Holder.class).copy(holder);
+        assertSame(holder.names, copy.names);
+        assertSame(holder.counts, copy.counts);
+    }
+
+    @Test
+    void keepsUnmodifiableCollectionsUnmodifiable() {
+        Holder holder = new Holder();
+        holder.counters = Collections.unmodifiableSet(new LinkedHashSet<>(List.of(new Counter(1))));
+        holder.nodes = List.of(new Node());
+        holder.counts = Collections.unmodifiableMap(new TreeMap<>(Map.of("a", 1, "b", 2)));
+        Holder copy = TypeCopier.of(Holder.class).copy(holder);
+        assertNotSame(holder.counters.iterator().next(), copy.counters.iterator().next());
+        assertEquals(1, copy.counters.iterator().next().count);
+        assertNotSame(holder.nodes.get(0), copy.nodes.get(0));
+        assertEquals(List.of("a", "b"), new ArrayList<>(copy.counts.keySet()));
+        assertThrows(UnsupportedOperationException.class, () -> copy.counters.add(new Counter()));
+        assertThrows(UnsupportedOperationException.class, () -> copy.nodes.add(new Node()));
+        assertThrows(UnsupportedOperationException.class, () -> copy.counts.put("c", 3));
+    }
+
+    @Test
+    void copiesMutableCollectionsAsMutable() {
+        Map<String, List<Counter>> map = new HashMap<>();
+        map.put("a", new ArrayList<>(List.of(new Counter(1))));
+        Map<String, List<Counter>> copy = TypeCopier.of(new TypeToken<Map<String, List<Counter>>>() {}).copy(map);
+        copy.get("a").add(new Counter());
+        assertEquals(1, map.get("a").size());
+        assertNotSame(map.get("a").get(0), copy.get("a").get(0));
+    }
+
+    @Test
+    void copiesRecordsThroughCanonicalConstructor() {
+        Pair<String, Counter> pair = new Pair<>("a", new Counter(2));
+        Pair<String, Counter> copy = TypeCopier.of(new TypeToken<Pair<String, Counter>>() {}).copy(pair);
+        assertEquals("a", copy.first());
+        assertNotSame(pair.second(), copy.second());
+    }
+
+    @Test
+    void sharesLeafTypes() {
+        assertEquals(true, TypeCopier.of(String.class).isShared());
+        assertEquals(false, TypeCopier.of(Node.class).isShared());
+    }
+
+}
@@ -0,0 +1,56 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class TypeGraphTest {
+
+    static class Base<T> {
+        T value;
+    }
+
+    @SuppressWarnings("rawtypes")
+    static class RawSub extends Base {
+        Long id;
+    }
+
+    static class Top {
+        RawSub sub;
+    }
+
+    static class Order<T> {
+        List<Line<T>> lines;
+        Map<String, T> totals;
+        Optional<Order<T>> parent;
+        transient Thread worker;
+        static Runnable hook;
+    }
+
+    static class Line<T> {
+        T amount;
+        int[] counts;
+    }
+
+    @Test
+    void crawlsThroughFieldsAndContainers() {
+        Set<Type> reachable = TypeGraph.reachable(new TypeToken<Order<Integer>>() {});
+        assertEquals(Set.of(new TypeToken<Order<Integer>>() {}.javaType(),
+                new TypeToken<List<Line<Integer>>>() {}.javaType(), new TypeToken<Line<Integer>>() {}.javaType(),
+                new TypeToken<Map<String, Integer>>() {}.javaType(),
+                new TypeToken<Optional<Order<Integer>>>() {}.javaType(), String.class, Integer.class, int[].class,
+                int.class), reachable);
+    }
+
+    @Test
+    void rawSupertypesDoNotAbortTheCrawl() {
+        assertEquals(Set.of(Top.class, RawSub.class, Long.class, Object.class), TypeGraph.reachable(Top.class));
+    }
+
+}
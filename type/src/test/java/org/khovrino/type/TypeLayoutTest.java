@@ -0,0 +1,108 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TypeLayoutTest {
+
+    static class Box<T> {
+        T value;
+        int count;
+    }
+
+    static class Fin {
+        public final int a;
+        public final String b;
+
+        Fin() {
+            this(0, "");
+        }
+
+        Fin(int a, String b) {
+            this.a = a;
+            this.b = b;
+        }
+    }
+
+    static class Swapped {
+        final String a;
+        final String b;
+
+        Swapped(String b, String a) {
+            this.a = a;
+            this.b = b;
+        }
+    }
+
+    static class FinWithoutConstructor {
+        final int a = 1;
+    }
+
+    record Pair<A, B>(A first, B second) {
+    }
+
+    @Test
+    void resolvesSlotTypesInContext() {
+        TypeLayout<Box<List<String>>> layout = TypeLayout.of(new TypeToken<Box<List<String>>>() {});
+        assertEquals(new TypeToken<List<String>>() {}.javaType(), layout.slot("value").type());
+        assertEquals(int.class, layout.slot("count").type());
+        assertTrue(layout.isMutable());
+    }
+
+    @Test
+    void mutableClassIsFilledThroughSetters() {
+        TypeLayout<Box<String>> layout = TypeLayout.of(new TypeToken<Box<String>>() {});
+        Box<String> box = layout.newInstance("x", 3);
+        assertEquals("x", box.value);
+        assertEquals(3, box.count);
+        layout.slot("value").set(box, "y");
+        assertEquals("y", layout.slot("value").get(box));
+    }
+
+    @Test
+    void finalFieldsUseAllArgumentsConstructor() {
+        TypeLayout<Fin> layout = TypeLayout.of(TypeToken.of(Fin.class));
+        assertFalse(layout.isMutable());
+        assertTrue(layout.slot("a").isFinal());
+        Fin fin = layout.newInstance(5, "y");
+        assertEquals(5, fin.a);
+        assertEquals("y", fin.b);
+        assertThrows(IllegalStateException.class, () -> layout.slot("a").set(fin, 6));
+    }
+
+    @Test
+    void finalFieldsWithoutConstructorAreRefused() {
+        TypeLayout<FinWithoutConstructor> layout = TypeLayout.of(TypeToken.of(FinWithoutConstructor.class));
+        assertFalse(layout.isMutable());
+        assertThrows(IllegalStateException.class, () -> layout.newInstance(2));
+        assertEquals(1, layout.newInstance().a);
+    }
+
+    @Test
+    void constructorParametersMustMatchFieldNames() {
+        TypeLayout<Swapped> layout = TypeLayout.of(TypeToken.of(Swapped.class));
+        assertThrows(IllegalStateException.class, () -> layout.newInstance("a", "b"));
+        assertThrows(IllegalArgumentException.class, () -> TypeCopier.of(Swapped.class).copy(new Swapped("b", "a")));
+    }
+
+    @Test
+    void recordUsesCanonicalConstructor() {
+        TypeLayout<Pair<String, Integer>> layout = TypeLayout.of(new TypeToken<Pair<String, Integer>>() {});
+        assertTrue(layout.isRecord());
+        assertEquals(Integer.class, layout.slot("second").type());
+        assertEquals(new Pair<>("a", 1), layout.newInstance("a", 1));
+    }
+
+    @Test
+    void layoutsAreCachedByType() {
+        assertSame(TypeLayout.of(new TypeToken<Box<String>>() {}), TypeLayout.of(new TypeToken<Box<String>>() {}));
+    }
+
+}
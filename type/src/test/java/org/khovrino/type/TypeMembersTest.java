@@ -0,0 +1,118 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class TypeMembersTest {
+
+    static class Base<T extends Number> {
+        T value;
+
+        T get() {
+            return value;
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    static class RawSub extends Base {
+    }
+
+    static class Top extends RawSub {
+    }
+
+    @SuppressWarnings("rawtypes")
+    static class RawComparable implements Comparable {
+        @Override
+        public int compareTo(Object o) {
+            return 0;
+        }
+    }
+
+    static class Sup<T> {
+        public T open() {
+            return null;
+        }
+
+        private T secret() {
+            return null;
+        }
+
+        static String util() {
+            return null;
+        }
+    }
+
+    static class Sub extends Sup<String> {
+        static String own() {
+            return null;
+        }
+    }
+
+    interface Api {
+        static String sf() {
+            return null;
+        }
+
+        default String d() {
+            return null;
+        }
+    }
+
+    static class Impl implements Api {
+    }
+
+    static class Names extends ArrayList<String> {
+        private static final long serialVersionUID = 1L;
+    }
+
+    @Test
+    void resolvesMembersInContext() {
+        TypeMembers members = TypeMembers.of(new TypeToken<Base<Integer>>() {});
+        assertEquals(Integer.class, members.field("value").type());
+        assertEquals(Integer.class, members.methods("get").get(0).returnType());
+        assertEquals(String.class, TypeMembers.of(Sub.class).methods("open").get(0).returnType());
+    }
+
+    @Test
+    void rawSupertypesSubstituteErasures() {
+        TypeMembers members = TypeMembers.of(RawSub.class);
+        assertEquals(Number.class, members.field("value").type());
+        assertEquals(Number.class, members.methods("get").get(0).returnType());
+        assertEquals(Number.class, TypeMembers.of(Top.class).field("value").type());
+        assertEquals(List.of(Object.class),
+                TypeMembers.of(RawComparable.class).methods("compareTo").get(0).parameterTypes());
+    }
+
+    @Test
+    void listsOnlyInheritedMethods() {
+        Set<String> sub = names(TypeMembers.of(Sub.class));
+        assertTrue(sub.contains("open"));
+        assertTrue(sub.contains("own"));
+        assertFalse(sub.contains("secret"));
+        assertTrue(sub.contains("util"));
+        Set<String> impl = names(TypeMembers.of(Impl.class));
+        assertTrue(impl.contains("d"));
+        assertFalse(impl.contains("sf"));
+    }
+
+    @Test
+    void skipsPackagePrivateMethodsOfOtherPackages() {
+        Set<String> names = names(TypeMembers.of(Names.class));
+        assertTrue(names.contains("add"));
+        assertTrue(names.contains("removeRange"));
+        assertFalse(names.contains("elementData"));
+    }
+
+    private static Set<String> names(TypeMembers members) {
+        return members.methods().stream().map(method -> method.method().getName()).collect(Collectors.toSet());
+    }
+
+}
@@ -0,0 +1,102 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class TypePatternIndexTest {
+
+    private static <K, V> List<Type> patterns() {
+        return List.of(new TypeToken<List<K>>() {}.javaType(),
+                new TypeToken<Map<K, List<V>>>() {}.javaType(),
+                new TypeToken<Map<K, K>>() {}.javaType(),
+                new TypeToken<Map<String, V>>() {}.javaType(),
+                new TypeToken<Iterable<? extends K>>() {}.javaType(),
+                new TypeToken<K[]>() {}.javaType(),
+                String.class);
+    }
+
+    private static List<Type> inputs() {
+        return List.of(new TypeToken<List<String>>() {}.javaType(),
+                new TypeToken<ArrayList<Integer>>() {}.javaType(),
+                new TypeToken<Map<String, List<Integer>>>() {}.javaType(),
+                new TypeToken<HashMap<String, String>>() {}.javaType(),
+                new TypeToken<LinkedHashMap<Integer, List<Integer>>>() {}.javaType(),
+                new TypeToken<Map<Integer, Long>>() {}.javaType(),
+                new TypeToken<List<? extends Number>>() {}.javaType(),
+                new TypeToken<List<? super Integer>>() {}.javaType(),
+                new TypeToken<List<String>[]>() {}.javaType(),
+                String[].class,
+                String.class,
+                Integer.class);
+    }
+
+    private static List<TypePatternIndex.Match<Integer>> expected(List<Type> patterns, Type type) {
+        List<TypePatternIndex.Match<Integer>> matches = new ArrayList<>();
+        for (int i = 0; i < patterns.size(); i++) {
+            Map<TypeVariable<?>, Type> bindings;
+            try {
+                bindings = JavaType.solveSuper(patterns.get(i), type);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                continue;
+            }
+            matches.add(new TypePatternIndex.Match<>(patterns.get(i), i, bindings));
+        }
+        return matches;
+    }
+
+    @Test
+    void matchesAgreeWithSolveSuper() {
+        List<Type> patterns = patterns();
+        TypePatternIndex<Integer> index = TypePatternIndex.create();
+        for (int i = 0; i < patterns.size(); i++) {
+            index.add(patterns.get(i), i);
+        }
+        assertEquals(patterns.size(), index.size());
+        for (Type type : inputs()) {
+            assertEquals(expected(patterns, type), index.match(type), type.getTypeName());
+        }
+    }
+
+    @Test
+    void repeatedVariablesMustBindTheSameType() {
+        TypePatternIndex<Integer> index = TypePatternIndex.create();
+        Type pattern = patterns().get(2);
+        index.add(pattern, 0);
+        assertEquals(1, index.match(new TypeToken<HashMap<String, String>>() {}.javaType()).size());
+        assertEquals(List.of(), index.match(new TypeToken<Map<Integer, Long>>() {}.javaType()));
+    }
+
+    @Test
+    void matchesKeepInsertionOrder() {
+        List<Type> patterns = new ArrayList<>(patterns());
+        Type input = new TypeToken<HashMap<String, List<String>>>() {}.javaType();
+        for (int round = 0; round < 2; round++) {
+            TypePatternIndex<Integer> index = TypePatternIndex.create();
+            for (int i = 0; i < patterns.size(); i++) {
+                index.add(patterns.get(i), i);
+            }
+            List<TypePatternIndex.Match<Integer>> matches = index.match(input);
+            assertEquals(expected(patterns, input), matches);
+            assertEquals(2, matches.size());
+            Collections.reverse(patterns);
+        }
+    }
+
+    @Test
+    void wildcardPatternsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TypePatternIndex.create().add(WildcardTypeImpl.ext(Number.class), 0));
+    }
+
+}
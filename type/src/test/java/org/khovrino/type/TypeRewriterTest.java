@@ -0,0 +1,60 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class TypeRewriterTest {
+
+    private static final TypeVariable<?> T = List.class.getTypeParameters()[0];
+
+    @Test
+    void unchangedSubtreesAreReturnedByIdentity() {
+        Type setOfStrings = new ParameterizedTypeImpl(null, Set.class, String.class);
+        Type listOfT = new ParameterizedTypeImpl(null, List.class, T);
+        ParameterizedType map = new ParameterizedTypeImpl(null, Map.class, setOfStrings, listOfT);
+        TypeRewriter rewriter = TypeRewriter.substitution(Map.of(T, Integer.class));
+        ParameterizedType rewritten = (ParameterizedType) rewriter.rewrite(map);
+        assertEquals(new TypeToken<Map<Set<String>, List<Integer>>>() {}.javaType(), rewritten);
+        assertSame(setOfStrings, rewritten.getActualTypeArguments()[0]);
+        assertNotSame(listOfT, rewritten.getActualTypeArguments()[1]);
+        Type ground = new TypeToken<Map<String, List<? extends Number>[]>>() {}.javaType();
+        assertSame(ground, rewriter.rewrite(ground));
+    }
+
+    @Test
+    void repeatedNodesAreRewrittenOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        TypeRewriter rewriter = new TypeRewriter() {
+            @Override
+            protected Type rewriteVariable(TypeVariable<?> variable) {
+                calls.incrementAndGet();
+                return String.class;
+            }
+        };
+        Type listOfT = new ParameterizedTypeImpl(null, List.class, T);
+        Type wildcard = WildcardTypeImpl.ext(listOfT);
+        ParameterizedType map = new ParameterizedTypeImpl(null, Map.class, listOfT,
+                new ParameterizedTypeImpl(null, Map.class, wildcard, listOfT));
+        ParameterizedType rewritten = (ParameterizedType) rewriter.rewrite(map);
+        assertEquals(1, calls.get());
+        ParameterizedType inner = (ParameterizedType) rewritten.getActualTypeArguments()[1];
+        assertSame(rewritten.getActualTypeArguments()[0], inner.getActualTypeArguments()[1]);
+        assertEquals(WildcardTypeImpl.ext(new ParameterizedTypeImpl(null, List.class, String.class)),
+                inner.getActualTypeArguments()[0]);
+        Type[] both = rewriter.rewrite(new Type[] { listOfT, listOfT });
+        assertSame(both[0], both[1]);
+        assertEquals(2, calls.get());
+    }
+
+}
@@ -0,0 +1,89 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class TypeTableTest {
+
+    static class Outer<T> {
+        class Inner<U> {
+        }
+    }
+
+    @Test
+    void equalTypesShareAnId() {
+        TypeTable table = new TypeTable();
+        int first = table.intern(new TypeToken<Map<String, List<Integer>>>() {}.javaType());
+        int size = table.size();
+        int second = table.intern(new ParameterizedTypeImpl(null, Map.class, String.class,
+                new ParameterizedTypeImpl(null, List.class, Integer.class)));
+        assertEquals(first, second);
+        assertEquals(size, table.size());
+        assertEquals(List.class, table.rawType(table.argument(first, 1)));
+        assertEquals(table.intern(String.class), table.argument(first, 0));
+        assertNotEquals(first, table.intern(new TypeToken<Map<String, List<Long>>>() {}.javaType()));
+    }
+
+    @Test
+    <T> void roundTripsEveryKindOfType() {
+        TypeTable table = new TypeTable();
+        List<Type> types = List.of(String.class, int[].class,
+                new TypeToken<List<? extends Number>>() {}.javaType(),
+                new TypeToken<Collection<? super Integer>>() {}.javaType(),
+                new TypeToken<List<String>[]>() {}.javaType(),
+                new TypeToken<Map<T, List<T>[]>>() {}.javaType(),
+                new TypeToken<Outer<String>.Inner<Integer>>() {}.javaType());
+        for (Type type : types) {
+            int id = table.intern(type);
+            assertEquals(type, table.toType(id), type.getTypeName());
+            assertEquals(id, table.intern(table.toType(id)), type.getTypeName());
+        }
+    }
+
+    @Test
+    void exposesWildcardsArraysAndOwners() {
+        TypeTable table = new TypeTable();
+        int wildcard = table.intern(WildcardTypeImpl.ext(Number.class));
+        assertTrue(table.isWildcard(wildcard));
+        assertTrue(table.isGround(wildcard));
+        int array = table.intern(new TypeToken<List<String>[]>() {}.javaType());
+        assertTrue(table.isArray(array));
+        assertEquals(table.intern(new TypeToken<List<String>>() {}.javaType()), table.componentType(array));
+        assertEquals(array, table.arrayType(table.componentType(array)));
+        assertEquals(table.intern(String[].class), table.arrayType(table.intern(String.class)));
+        int inner = table.intern(new TypeToken<Outer<String>.Inner<Integer>>() {}.javaType());
+        assertEquals(table.intern(new TypeToken<Outer<String>>() {}.javaType()), table.ownerType(inner));
+        assertEquals(1, table.argumentCount(inner));
+        assertEquals(Outer.Inner.class, table.rawType(inner));
+        assertEquals(TypeTable.NONE, table.ownerType(table.intern(String.class)));
+        assertThrows(IllegalArgumentException.class, () -> table.argument(wildcard, 0));
+    }
+
+    @Test
+    void substitutesVariablesAndDowngrades() {
+        TypeTable table = new TypeTable();
+        TypeVariable<?> element = List.class.getTypeParameters()[0];
+        int template = table.intern(new ParameterizedTypeImpl(null, Collection.class, element));
+        assertFalse(table.isGround(template));
+        int substituted = table.substitute(template, new int[] { table.intern(element) },
+                new int[] { table.intern(String.class) });
+        assertEquals(table.intern(new TypeToken<Collection<String>>() {}.javaType()), substituted);
+        int arrayList = table.intern(new TypeToken<ArrayList<String>>() {}.javaType());
+        assertEquals(substituted, table.downgrade(arrayList, Collection.class));
+        assertTrue(table.testExtends(arrayList, substituted));
+        assertFalse(table.testExtends(substituted, arrayList));
+    }
+
+}
@@ -0,0 +1,46 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class TypeTokenTest {
+
+    static class Unshared {
+    }
+
+    @Test
+    void equalTypesYieldTheCanonicalToken() {
+        Type built = new ParameterizedTypeImpl(null, Map.class, String.class,
+                new ParameterizedTypeImpl(null, List.class, Integer.class));
+        TypeToken<Map<String, List<Integer>>> anonymous = new TypeToken<>() {};
+        TypeToken<?> interned = TypeToken.of(built);
+        assertSame(interned, TypeToken.of(anonymous.javaType()));
+        assertSame(interned, anonymous.canonical());
+        assertNotSame(interned, anonymous);
+        assertEquals(interned, anonymous);
+        assertSame(TypeToken.of(String.class), TypeToken.of((Type) String.class));
+    }
+
+    @Test
+    void unreferencedTokensAreCollected() throws InterruptedException {
+        WeakReference<TypeToken<?>> ref = new WeakReference<>(
+                TypeToken.of(new ParameterizedTypeImpl(null, List.class, Unshared.class)));
+        for (int i = 0; i < 100 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+        TypeToken<?> fresh = TypeToken.of(new ParameterizedTypeImpl(null, List.class, Unshared.class));
+        assertSame(fresh, TypeToken.of(new ParameterizedTypeImpl(null, List.class, Unshared.class)));
+    }
+
+}
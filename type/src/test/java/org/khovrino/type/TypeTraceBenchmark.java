@@ -0,0 +1,97 @@
+package org.khovrino.type;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeTraceBenchmark {
+
+    @Param({ "off", "otherThread" })
+    public String tracing;
+
+    private Type arrayListOfString;
+    private Type listOfCharSequences;
+    private Type listOfMaps;
+    private Type collectionOfMaps;
+    private TypeTerm arrayListOfStringTerm;
+    private TypeTerm listOfCharSequencesTerm;
+    private CountDownLatch release;
+    private Thread session;
+
+    @Setup(Level.Trial)
+    public <T> void setUp() throws InterruptedException {
+        arrayListOfString = new TypeToken<ArrayList<String>>() {}.javaType();
+        listOfCharSequences = new TypeToken<List<? extends CharSequence>>() {}.javaType();
+        listOfMaps = new TypeToken<List<Map<String, T>>>() {}.javaType();
+        collectionOfMaps = new TypeToken<Collection<? extends Map<String, T>>>() {}.javaType();
+        arrayListOfStringTerm = TypeTerm.of(arrayListOfString);
+        listOfCharSequencesTerm = TypeTerm.of(listOfCharSequences);
+        if (tracing.equals("otherThread")) {
+            CountDownLatch started = new CountDownLatch(1);
+            release = new CountDownLatch(1);
+            session = new Thread(() -> TypeTrace.record(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            session.start();
+            started.await();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        if (session != null) {
+            release.countDown();
+            session.join();
+        }
+    }
+
+    @Benchmark
+    public boolean groundWithoutHooks() {
+        return TermSolver.testExtends(arrayListOfStringTerm, listOfCharSequencesTerm);
+    }
+
+    @Benchmark
+    public boolean ground() {
+        return JavaType.testExtends(arrayListOfString, listOfCharSequences);
+    }
+
+    @Benchmark
+    public boolean variables() {
+        return JavaType.testExtends(listOfMaps, collectionOfMaps);
+    }
+
+    @Benchmark
+    public TypeTrace variablesTraced() {
+        return TypeTrace.record(() -> JavaType.testExtends(listOfMaps, collectionOfMaps));
+    }
+
+}
@@ -0,0 +1,59 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class TypeTraceTest {
+
+    @Test
+    <T> void exportsDerivationsAsTextAndJson() {
+        Type sub = new TypeToken<List<Map<String, T>>>() {}.javaType();
+        Type sup = new TypeToken<Collection<? extends Map<String, T>>>() {}.javaType();
+        TypeTrace trace = TypeTrace.record(() -> JavaType.testExtends(sub, sup));
+        assertFalse(trace.isFailed());
+        assertNull(trace.failure());
+        assertTrue(trace.elapsedNanos() > 0);
+        String[] lines = trace.toText().split("\n");
+        assertTrue(lines[0].matches("ok, \\d+ ns"), lines[0]);
+        assertTrue(lines[1].startsWith("  extends[IDENTITY] " + sub.getTypeName() + " : " + sup.getTypeName() + " => "),
+                lines[1]);
+        assertTrue(lines.length > 2 && lines[2].startsWith("    "), trace.toText());
+        assertTrue(trace.toText().contains("containedBy["), trace.toText());
+        String json = trace.toJson();
+        assertTrue(json.startsWith("{\"elapsedNanos\":" + trace.elapsedNanos() + ",\"goals\":[{\"goal\":\"extends\","
+                + "\"mode\":\"IDENTITY\",\"left\":\"" + sub.getTypeName() + "\",\"right\":\"" + sup.getTypeName()
+                + "\",\"cases\":"), json);
+        assertTrue(json.contains("\"children\":[{\"goal\":"), json);
+        assertTrue(json.endsWith("]}"), json);
+        assertEquals(trace.toText(), trace.toString());
+    }
+
+    @Test
+    void recordsFailuresInBothFormats() {
+        TypeTrace trace = TypeTrace.record(() -> {
+            throw new IllegalArgumentException("bad \"type\"\n");
+        });
+        assertTrue(trace.isFailed());
+        assertTrue(trace.toText().startsWith("failed: java.lang.IllegalArgumentException: bad \"type\"\n, "),
+                trace.toText());
+        assertTrue(trace.toJson().contains(
+                "\"failure\":\"java.lang.IllegalArgumentException: bad \\\"type\\\"\\n\",\"goals\":[]}"), trace.toJson());
+    }
+
+    @Test
+    void noTraceIsActiveOutsideARecording() {
+        assertNull(TypeTrace.current());
+        TypeTrace.record(() -> assertTrue(TypeTrace.current() != null));
+        assertNull(TypeTrace.current());
+    }
+
+}
@@ -0,0 +1,62 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+class TypeWarmupTest {
+
+    record Point(int x, int y) {
+    }
+
+    @Test
+    void warmsTypeCacheBackedLookups() {
+        TypeToken<ArrayDeque<Point>> points = new TypeToken<>() {};
+        TypeToken<Function<Point, String>> labels = new TypeToken<>() {};
+        TypeWarmup.Report report = TypeWarmup.create().add(Point.class).add(points).add(labels).run();
+        assertTrue(report.failures().isEmpty(), report.failures().toString());
+        TypeCache.Stats before = TypeCache.totalStats(Point.class.getClassLoader());
+        TypeLayout.of(TypeToken.of(Point.class));
+        CollectionFactory.of(points);
+        FunctionalSignature.of(labels);
+        TypeCache.Stats after = TypeCache.totalStats(Point.class.getClassLoader());
+        assertEquals(before.misses(), after.misses());
+        assertEquals(before.hits() + 3, after.hits());
+    }
+
+    @Test
+    void listenerCallsAreSerializedAndOrdered() throws Exception {
+        TypeWarmup warmup = TypeWarmup.create();
+        for (Class<?> c : List.of(String.class, Integer.class, ArrayList.class, ArrayDeque.class, Point.class,
+                Function.class, List.class, Long.class)) {
+            warmup.add(c);
+        }
+        List<Integer> seen = new ArrayList<>();
+        AtomicBoolean inside = new AtomicBoolean();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            warmup.start(executor, (completed, total, type) -> {
+                overlapped.compareAndSet(false, !inside.compareAndSet(false, true));
+                seen.add(completed);
+                Thread.yield();
+                inside.set(false);
+            }).join();
+        } finally {
+            executor.shutdown();
+        }
+        assertFalse(overlapped.get());
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8), seen);
+    }
+
+}
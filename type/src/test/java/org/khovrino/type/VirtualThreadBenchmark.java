@@ -0,0 +1,115 @@
+package org.khovrino.type;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jdk.jfr.Event;
+import jdk.jfr.Name;
+import jdk.jfr.consumer.RecordingStream;
+
+public final class VirtualThreadBenchmark {
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+    private static final String CONTENDED = "jdk.JavaMonitorEnter";
+
+    private record Case(TypeToken<?> token, Class<?> superClass) {}
+
+    private static final List<Case> CASES = List.of(
+            new Case(new TypeToken<ArrayList<Integer>>() {}, Collection.class),
+            new Case(new TypeToken<List<String>>() {}, Iterable.class),
+            new Case(new TypeToken<HashMap<String, Set<Long>>>() {}, Map.class),
+            new Case(new TypeToken<TreeSet<String>>() {}, Set.class),
+            new Case(new TypeToken<Map<String, List<Integer>>>() {}, Map.class));
+
+    public record Result(int tasks, long nanos, long pinnedEvents, long contendedEvents) {
+
+        public double throughput() {
+            return tasks * 1e9 / nanos;
+        }
+
+    }
+
+    @Name("org.khovrino.type.Drain")
+    static final class Drain extends Event {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 && args[0].matches("\\d+") ? Integer.parseInt(args[0]) : 100_000;
+        if (!isSupported()) {
+            System.out.printf("Virtual threads are not available on Java %s%n", Runtime.version());
+            return;
+        }
+        run(tasks / 10);
+        Result result = run(tasks);
+        System.out.printf("virtualThreads=%s tasks=%d time=%.1f ms throughput=%.0f ops/s pinned=%d contended=%d%n",
+                JavaType.VIRTUAL_THREADS, result.tasks(), result.nanos() / 1e6, result.throughput(),
+                result.pinnedEvents(), result.contendedEvents());
+    }
+
+    static boolean isSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    static Result run(int tasks) throws Exception {
+        AtomicLong pinned = new AtomicLong();
+        AtomicLong contended = new AtomicLong();
+        CountDownLatch drained = new CountDownLatch(1);
+        try (RecordingStream stream = new RecordingStream()) {
+            stream.enable(PINNED).withThreshold(Duration.ZERO).withStackTrace();
+            stream.enable(CONTENDED).withThreshold(Duration.ZERO);
+            stream.enable(Drain.class);
+            stream.onEvent(PINNED, event -> pinned.incrementAndGet());
+            stream.onEvent(CONTENDED, event -> contended.incrementAndGet());
+            stream.onEvent("org.khovrino.type.Drain", event -> drained.countDown());
+            stream.startAsync();
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            long start = System.nanoTime();
+            for (int i = 0; i < tasks; i++) {
+                Case c = CASES.get(i % CASES.size());
+                executor.execute(() -> work(c));
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(5, TimeUnit.MINUTES)) {
+                throw new IllegalStateException(String.format("%d tasks did not finish", tasks));
+            }
+            long nanos = System.nanoTime() - start;
+            new Drain().commit();
+            if (!drained.await(1, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Flight recorder stream did not drain");
+            }
+            return new Result(tasks, nanos, pinned.get(), contended.get());
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static void work(Case c) {
+        Type type = c.token().javaType();
+        JavaType.supertypes(type);
+        Type shifted = JavaType.shift(type, c.superClass());
+        if (!JavaType.testExtends(type, shifted)) {
+            throw new IllegalStateException(String.format("%s does not extend %s", type, shifted));
+        }
+        JavaType.downgrade(type, c.superClass());
+        c.token().list().mapTo((TypeToken) c.token());
+        CollectionFactory.of(c.token()).create();
+    }
+
+}
@@ -0,0 +1,18 @@
+package org.khovrino.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadTest {
+
+    @Test
+    void publicApiDoesNotPinVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreadBenchmark.isSupported(), "Virtual threads are not available");
+        VirtualThreadBenchmark.run(1_000);
+        VirtualThreadBenchmark.Result result = VirtualThreadBenchmark.run(10_000);
+        assertEquals(0, result.pinnedEvents());
+    }
+
+}